@@ -0,0 +1,94 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class BookingArchiveJob {
+    private static final String COLUMNS = "booking_id, start_time, end_time, item_id, booker_id, status, version";
+
+    NamedParameterJdbcTemplate jdbcTemplate;
+    TransactionTemplate transactionTemplate;
+    BookingArchiveProperties properties;
+
+    @Scheduled(
+            fixedDelayString = "${shareit.booking-archive.interval:PT1H}",
+            initialDelayString = "${shareit.booking-archive.interval:PT1H}"
+    )
+    public void archive() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        int moved = archiveEndedBefore(LocalDateTime.now().minus(properties.getRetention()));
+        if (moved > 0) {
+            log.info("Archived {} bookings", moved);
+        }
+    }
+
+    public int archiveEndedBefore(LocalDateTime cutoff) {
+        if (isPostgres()) {
+            createYearlyPartitions(cutoff);
+        }
+
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> moveBatch(cutoff));
+            total += moved;
+        } while (moved > 0);
+
+        return total;
+    }
+
+    private int moveBatch(LocalDateTime cutoff) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "select booking_id from booking where end_time < :cutoff order by booking_id limit :limit",
+                new MapSqlParameterSource("cutoff", cutoff).addValue("limit", properties.getBatchSize()),
+                Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        jdbcTemplate.update("insert into booking_archive (" + COLUMNS + ") " +
+                "select " + COLUMNS + " from booking where booking_id in (:ids)", params);
+        return jdbcTemplate.update("delete from booking where booking_id in (:ids)", params);
+    }
+
+    // rows landing in the default partition would block creating their year's partition later
+    private void createYearlyPartitions(LocalDateTime cutoff) {
+        Integer fromYear = jdbcTemplate.queryForObject(
+                "select cast(extract(year from min(end_time)) as integer) from booking where end_time < :cutoff",
+                new MapSqlParameterSource("cutoff", cutoff),
+                Integer.class);
+        if (fromYear == null) {
+            return;
+        }
+
+        for (int year = fromYear; year <= cutoff.getYear(); year++) {
+            jdbcTemplate.getJdbcTemplate().execute(String.format("create table if not exists booking_archive_y%d " +
+                    "partition of booking_archive for values from ('%d-01-01') to ('%d-01-01')", year, year, year + 1));
+        }
+    }
+
+    private boolean isPostgres() {
+        String product = jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(product);
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit.booking-archive")
+public class BookingArchiveProperties {
+    private boolean enabled = true;
+    /**
+     * Bookings that ended longer than this ago are moved from the live table to the archive.
+     */
+    private Duration retention = Duration.ofDays(180);
+    private int batchSize = 1000;
+}
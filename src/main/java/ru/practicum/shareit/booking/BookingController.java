@@ -3,6 +3,8 @@ package ru.practicum.shareit.booking;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -13,12 +15,20 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.core.etag.ConditionalGetCache;
+import ru.practicum.shareit.core.etag.EntityVersions;
+import ru.practicum.shareit.core.idempotency.IdempotencyStore;
 import ru.practicum.shareit.core.pagination.PaginationMapper;
+import ru.practicum.shareit.core.ratelimit.RateLimited;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
 
 import javax.validation.Valid;
 import javax.validation.constraints.PositiveOrZero;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @Validated
@@ -28,8 +38,11 @@ import java.util.List;
 public class BookingController {
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
     BookingService bookingService;
+    ConditionalGetCache conditionalGetCache;
+    IdempotencyStore idempotencyStore;
 
     @GetMapping
+    @RateLimited("bookings")
     public List<Booking> getAllByBooker(
             @RequestHeader(name = USER_ID_HEADER) long bookerId,
             @RequestParam(defaultValue = "ALL") String state,
@@ -40,6 +53,7 @@ public class BookingController {
     }
 
     @GetMapping("/owner")
+    @RateLimited("bookings")
     public List<Booking> getAllByOwner(
             @RequestHeader(name = USER_ID_HEADER) long ownerId,
             @RequestParam(defaultValue = "ALL") String state,
@@ -49,14 +63,60 @@ public class BookingController {
         return bookingService.getAllByOwner(ownerId, state, PaginationMapper.toPageable(from, size));
     }
 
+    @GetMapping("/counts")
+    public BookingCountsDto getCountsByBooker(@RequestHeader(name = USER_ID_HEADER) long bookerId) {
+        return bookingService.getCountsByBooker(bookerId);
+    }
+
+    @GetMapping("/owner/counts")
+    public BookingCountsDto getCountsByOwner(@RequestHeader(name = USER_ID_HEADER) long ownerId) {
+        return bookingService.getCountsByOwner(ownerId);
+    }
+
+    @GetMapping(params = "ids")
+    public List<Booking> getAllById(
+            @RequestHeader(name = USER_ID_HEADER) long userId,
+            @RequestParam List<Long> ids
+    ) {
+        return bookingService.getAllById(ids, userId);
+    }
+
     @GetMapping("/{bookingId}")
-    public Booking getById(@PathVariable long bookingId, @RequestHeader(name = USER_ID_HEADER) long userId) {
-        return bookingService.getById(bookingId, userId);
+    public ResponseEntity<Booking> getById(
+            @PathVariable long bookingId,
+            @RequestHeader(name = USER_ID_HEADER) long userId,
+            @RequestHeader(required = false, name = HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        String resource = "booking:" + bookingId;
+        Optional<ResponseEntity<Booking>> notModified = conditionalGetCache
+                .checkNotModified(resource, userId, ifNoneMatch);
+        if (notModified.isPresent()) {
+            return notModified.get();
+        }
+
+        Booking booking = bookingService.getById(bookingId, userId);
+        Item item = booking.getItem();
+        long ownerId = item.getOwner().getId();
+        long bookerId = booking.getBooker().getId();
+
+        List<String> components = List.of(
+                EntityVersions.key(Booking.class, bookingId),
+                EntityVersions.key(Item.class, item.getId()),
+                EntityVersions.key(User.class, ownerId),
+                EntityVersions.key(User.class, bookerId)
+        );
+
+        return conditionalGetCache.respond(resource, components,
+                viewerId -> viewerId != null && (viewerId == ownerId || viewerId == bookerId),
+                userId, ifNoneMatch, booking);
     }
 
     @PostMapping
-    public Booking create(@RequestHeader(name = USER_ID_HEADER) long userId, @Valid @RequestBody BookingDto dto) {
-        return bookingService.create(userId, dto);
+    public Booking create(
+            @RequestHeader(name = USER_ID_HEADER) long userId,
+            @RequestHeader(required = false, name = IdempotencyStore.HEADER) String idempotencyKey,
+            @Valid @RequestBody BookingDto dto) {
+        return idempotencyStore.execute("booking", userId, idempotencyKey, dto,
+                () -> bookingService.create(userId, dto));
     }
 
     @PatchMapping("/{bookingId}")
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived booking counts per user, dropped when a booking of that user is created or changes status.
+ */
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class BookingCountsCache {
+    public static final String BOOKER = "booker";
+    public static final String OWNER = "owner";
+
+    BookingCountsProperties properties;
+    Map<String, Entry> entries = new ConcurrentHashMap<>();
+    AtomicLong evictions = new AtomicLong();
+
+    public BookingCountsDto get(String role, long userId, Supplier<BookingCountsDto> loader) {
+        long ttl = properties.getTtl().toMillis();
+        if (ttl <= 0) {
+            return loader.get();
+        }
+
+        String key = role + ":" + userId;
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.isExpired(now)) {
+            return entry.counts;
+        }
+
+        long evictionsBeforeLoad = evictions.get();
+        BookingCountsDto counts = loader.get();
+        // counts loaded while a booking write committed may already be stale
+        if (evictions.get() == evictionsBeforeLoad) {
+            evictIfFull(now);
+            entries.put(key, new Entry(counts, now + ttl));
+        }
+        return counts;
+    }
+
+    public void evict(long... userIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(userIds);
+                }
+            });
+        } else {
+            remove(userIds);
+        }
+    }
+
+    private void remove(long... userIds) {
+        evictions.incrementAndGet();
+        for (long userId : userIds) {
+            entries.remove(BOOKER + ":" + userId);
+            entries.remove(OWNER + ":" + userId);
+        }
+    }
+
+    private void evictIfFull(long now) {
+        if (entries.size() < properties.getMaxEntries()) {
+            return;
+        }
+
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        if (entries.size() >= properties.getMaxEntries()) {
+            entries.clear();
+        }
+    }
+
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class Entry {
+        BookingCountsDto counts;
+        long expiresAt;
+
+        boolean isExpired(long now) {
+            return expiresAt <= now;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit.booking-counts")
+public class BookingCountsProperties {
+    /**
+     * How long counts are served from memory. CURRENT, PAST and FUTURE move with time, so keep it short;
+     * zero disables the cache.
+     */
+    private Duration ttl = Duration.ofSeconds(5);
+    private int maxEntries = 10_000;
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Counts bookings of every list state with one query over the live table and the archive.
+ */
+public interface BookingCountsRepository {
+    BookingCountsDto countStatesByBookerId(long bookerId, LocalDateTime now);
+
+    BookingCountsDto countStatesByItemOwnerId(long ownerId, LocalDateTime now);
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class BookingCountsRepositoryImpl implements BookingCountsRepository {
+    private static final String COLUMNS = "select b.start_time, b.end_time, b.status ";
+    private static final String COUNTS = "select count(*), " +
+            "coalesce(sum(case when b.start_time < :now and b.end_time > :now then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.end_time < :now then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.start_time > :now then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.status = 'WAITING' then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.status = 'REJECTED' then 1 else 0 end), 0) ";
+
+    EntityManager entityManager;
+
+    @Override
+    public BookingCountsDto countStatesByBookerId(long bookerId, LocalDateTime now) {
+        String where = "where b.booker_id = :userId ";
+        return count(COLUMNS + "from booking b " + where + "union all " + COLUMNS + "from booking_archive b " + where,
+                bookerId, now);
+    }
+
+    @Override
+    public BookingCountsDto countStatesByItemOwnerId(long ownerId, LocalDateTime now) {
+        String owned = "join item i on b.item_id = i.item_id where i.owner_id = :userId ";
+        return count(COLUMNS + "from booking b " + owned + "union all " + COLUMNS + "from booking_archive b " + owned,
+                ownerId, now);
+    }
+
+    private BookingCountsDto count(String bookings, long userId, LocalDateTime now) {
+        Object[] row = (Object[]) entityManager
+                .createNativeQuery(COUNTS + "from (" + bookings + ") b")
+                .setParameter("userId", userId)
+                .setParameter("now", now)
+                .getSingleResult();
+
+        return new BookingCountsDto(toLong(row[0]), toLong(row[1]), toLong(row[2]), toLong(row[3]),
+                toLong(row[4]), toLong(row[5]));
+    }
+
+    // the numeric type of count and sum differs between databases
+    private static long toLong(Object value) {
+        return ((Number) value).longValue();
+    }
+}
@@ -1,32 +1,153 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface BookingJpaRepository extends JpaRepository<Booking, Long> {
+public interface BookingJpaRepository extends JpaRepository<Booking, Long>, BookingCountsRepository {
+    String COLUMNS = "b.booking_id, b.start_time, b.end_time, b.item_id, b.booker_id, b.status, b.version";
+    String LIVE = "select " + COLUMNS + " from booking b ";
+    String ARCHIVE = "select " + COLUMNS + " from booking_archive b ";
+    String OWNED = "join item i on b.item_id = i.item_id where i.owner_id = :ownerId ";
+    /**
+     * Derived queries under the details graph filtered on the joined booker or owner row, which kept H2 off the
+     * booking indexes; these lists filter on the booking's own foreign key columns instead.
+     */
+    String BY_BOOKER = "select b from Booking b where b.booker.id = :bookerId ";
+    String BY_OWNER = "select b from Booking b " +
+            "where b.item.id in (select i.id from Item i where i.owner.id = :ownerId) ";
 
-    List<Booking> findAllByBookerIdOrderByStartDesc(long bookerId, Pageable pageable);
+    @Override
+    @EntityGraph(Booking.DETAILS)
+    Optional<Booking> findById(Long id);
 
-    List<Booking> findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(long bookerId, LocalDateTime start, LocalDateTime end, Pageable pageable);
+    @EntityGraph(Booking.DETAILS)
+    List<Booking> findAllByIdIn(Collection<Long> ids);
 
-    List<Booking> findAllByBookerIdAndEndBeforeOrderByStartDesc(long bookerId, LocalDateTime end, Pageable pageable);
+    @EntityGraph(Booking.DETAILS)
+    @Query(BY_BOOKER + "and b.start < :start and b.end > :end order by b.start desc")
+    List<Booking> findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(@Param("bookerId") long bookerId,
+                                                                           @Param("start") LocalDateTime start,
+                                                                           @Param("end") LocalDateTime end,
+                                                                           Pageable pageable);
 
-    List<Booking> findAllByBookerIdAndStartAfterOrderByStartDesc(long bookerId, LocalDateTime start, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(long bookerId, BookingStatus status, Pageable pageable);
+    @EntityGraph(Booking.DETAILS)
+    @Query(BY_BOOKER + "and b.start > :start order by b.start desc")
+    List<Booking> findAllByBookerIdAndStartAfterOrderByStartDesc(@Param("bookerId") long bookerId,
+                                                               @Param("start") LocalDateTime start,
+                                                               Pageable pageable);
 
     List<Booking> findAllByItemOwnerIdOrderByStartDesc(long ownerId, Pageable pageable);
 
-    List<Booking> findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(long ownerId, LocalDateTime start, LocalDateTime end, Pageable pageable);
+    @EntityGraph(Booking.DETAILS)
+    @Query(BY_OWNER + "and b.start < :start and b.end > :end order by b.start desc")
+    List<Booking> findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(@Param("ownerId") long ownerId,
+                                                                              @Param("start") LocalDateTime start,
+                                                                              @Param("end") LocalDateTime end,
+                                                                              Pageable pageable);
+
+    @EntityGraph(Booking.DETAILS)
+    @Query(BY_OWNER + "and b.start > :start order by b.start desc")
+    List<Booking> findAllByItemOwnerIdAndStartAfterOrderByStartDesc(@Param("ownerId") long ownerId,
+                                                                  @Param("start") LocalDateTime start,
+                                                                  Pageable pageable);
 
-    List<Booking> findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(long ownerId, LocalDateTime end, Pageable pageable);
+    List<Booking> findAllByItemIdOrderByStartAsc(long itemId);
 
-    List<Booking> findAllByItemOwnerIdAndStartAfterOrderByStartDesc(long ownerId, LocalDateTime start, Pageable pageable);
+    List<Booking> findAllByItemIdIn(Collection<Long> itemIds);
 
-    List<Booking> findAllByItemOwnerIdAndStatusOrderByStartDesc(long ownerId, BookingStatus status, Pageable pageable);
+    boolean existsByBookerIdAndItemIdAndStatusAndEndBefore(long bookerId, long itemId, BookingStatus status, LocalDateTime end);
 
-    List<Booking> findAllByItemIdOrderByStartAsc(long itemId);
-}
\ No newline at end of file
+    @Query(value = LIVE + "where b.booker_id = :bookerId " +
+            "union all " + ARCHIVE + "where b.booker_id = :bookerId " +
+            "order by start_time desc",
+            nativeQuery = true
+    )
+    List<Booking> findAllByBookerIdIncludingArchive(@Param("bookerId") long bookerId, Pageable pageable);
+
+    @Query(value = LIVE + "where b.booker_id = :bookerId and b.end_time < :end " +
+            "union all " + ARCHIVE + "where b.booker_id = :bookerId and b.end_time < :end " +
+            "order by start_time desc",
+            nativeQuery = true
+    )
+    List<Booking> findAllByBookerIdAndEndBeforeIncludingArchive(@Param("bookerId") long bookerId,
+                                                                @Param("end") LocalDateTime end,
+                                                                Pageable pageable);
+
+    @Query(value = LIVE + "where b.booker_id = :bookerId and b.status = :status " +
+            "union all " + ARCHIVE + "where b.booker_id = :bookerId and b.status = :status " +
+            "order by start_time desc",
+            nativeQuery = true
+    )
+    List<Booking> findAllByBookerIdAndStatusIncludingArchive(@Param("bookerId") long bookerId,
+                                                             @Param("status") String status,
+                                                             Pageable pageable);
+
+    @Query(value = LIVE + OWNED +
+            "union all " + ARCHIVE + OWNED +
+            "order by start_time desc",
+            nativeQuery = true
+    )
+    List<Booking> findAllByItemOwnerIdIncludingArchive(@Param("ownerId") long ownerId, Pageable pageable);
+
+    @Query(value = LIVE + OWNED + "and b.end_time < :end " +
+            "union all " + ARCHIVE + OWNED + "and b.end_time < :end " +
+            "order by start_time desc",
+            nativeQuery = true
+    )
+    List<Booking> findAllByItemOwnerIdAndEndBeforeIncludingArchive(@Param("ownerId") long ownerId,
+                                                                   @Param("end") LocalDateTime end,
+                                                                   Pageable pageable);
+
+    @Query(value = LIVE + OWNED + "and b.status = :status " +
+            "union all " + ARCHIVE + OWNED + "and b.status = :status " +
+            "order by start_time desc",
+            nativeQuery = true
+    )
+    List<Booking> findAllByItemOwnerIdAndStatusIncludingArchive(@Param("ownerId") long ownerId,
+                                                                @Param("status") String status,
+                                                                Pageable pageable);
+
+    @Query(value = ARCHIVE + "where b.booking_id = :id", nativeQuery = true)
+    Optional<Booking> findArchivedById(@Param("id") long id);
+
+    @Query(value = ARCHIVE + "where b.booking_id in (:ids)", nativeQuery = true)
+    List<Booking> findArchivedByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * The archive has no foreign keys, so archived bookings of a deleted item are removed here.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "delete from booking_archive where item_id = :itemId", nativeQuery = true)
+    void deleteArchivedByItemId(@Param("itemId") long itemId);
+
+    @Query(value = "select count(*) > 0 from booking_archive b " +
+            "where b.booker_id = :bookerId and b.item_id = :itemId and b.status = :status and b.end_time < :end",
+            nativeQuery = true
+    )
+    boolean existsArchivedByBookerIdAndItemIdAndStatusAndEndBefore(@Param("bookerId") long bookerId,
+                                                                  @Param("itemId") long itemId,
+                                                                  @Param("status") String status,
+                                                                  @Param("end") LocalDateTime end);
+
+    @Query(value = "select ranked.booking_id, ranked.start_time, ranked.end_time, ranked.item_id, " +
+            "ranked.booker_id, ranked.status, ranked.version " +
+            "from (select " + COLUMNS + ", " +
+            "row_number() over (partition by b.item_id order by b.start_time desc) as rn " +
+            "from booking_archive b " +
+            "where b.item_id in (:itemIds)) ranked " +
+            "where ranked.rn = 1",
+            nativeQuery = true
+    )
+    List<Booking> findLatestArchivedByItemIds(@Param("itemIds") Collection<Long> itemIds);
+}
@@ -3,20 +3,29 @@ package ru.practicum.shareit.booking;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.Hibernate;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.core.exception.NotFoundException;
 import ru.practicum.shareit.core.exception.UnsupportedStatusException;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.core.exception.FieldValidationException;
+import ru.practicum.shareit.core.pagination.MultiGet;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemJpaRepository;
+import ru.practicum.shareit.item.ItemOccupancyJob;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,66 +36,118 @@ public class BookingService {
     UserService userService;
     ItemJpaRepository itemRepo;
     ItemService itemService;
+    BookingCountsCache countsCache;
+    ItemOccupancyJob occupancyJob;
 
+    @Transactional(readOnly = true)
     public List<Booking> getAllByBooker(long bookerId, String state, Pageable pageable) {
         userService.getById(bookerId);
 
         switch (state) {
             case "ALL":
-                return repo.findAllByBookerIdOrderByStartDesc(bookerId, pageable);
+                return fetchDetails(repo.findAllByBookerIdIncludingArchive(bookerId, pageable));
             case "CURRENT":
                 return repo.findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(bookerId, LocalDateTime.now(), LocalDateTime.now(), pageable);
             case "PAST":
-                return repo.findAllByBookerIdAndEndBeforeOrderByStartDesc(bookerId, LocalDateTime.now(), pageable);
+                return fetchDetails(repo.findAllByBookerIdAndEndBeforeIncludingArchive(
+                        bookerId, LocalDateTime.now(), pageable));
             case "FUTURE":
                 return repo.findAllByBookerIdAndStartAfterOrderByStartDesc(bookerId, LocalDateTime.now(), pageable);
             case "WAITING":
-                return repo.findAllByBookerIdAndStatusOrderByStartDesc(bookerId, BookingStatus.WAITING, pageable);
+                return fetchDetails(repo.findAllByBookerIdAndStatusIncludingArchive(
+                        bookerId, BookingStatus.WAITING.name(), pageable));
             case "REJECTED":
-                return repo.findAllByBookerIdAndStatusOrderByStartDesc(bookerId, BookingStatus.REJECTED, pageable);
+                return fetchDetails(repo.findAllByBookerIdAndStatusIncludingArchive(
+                        bookerId, BookingStatus.REJECTED.name(), pageable));
             default:
                 throw new UnsupportedStatusException();
         }
     }
 
+    @Transactional(readOnly = true)
     public List<Booking> getAllByOwner(long ownerId, String state, Pageable pageable) {
         userService.getById(ownerId);
 
         switch (state) {
             case "ALL":
-                return repo.findAllByItemOwnerIdOrderByStartDesc(ownerId, pageable);
+                return fetchDetails(repo.findAllByItemOwnerIdIncludingArchive(ownerId, pageable));
             case "CURRENT":
                 return repo.findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(ownerId, LocalDateTime.now(), LocalDateTime.now(), pageable);
             case "PAST":
-                return repo.findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(ownerId, LocalDateTime.now(), pageable);
+                return fetchDetails(repo.findAllByItemOwnerIdAndEndBeforeIncludingArchive(
+                        ownerId, LocalDateTime.now(), pageable));
             case "FUTURE":
                 return repo.findAllByItemOwnerIdAndStartAfterOrderByStartDesc(ownerId, LocalDateTime.now(), pageable);
             case "WAITING":
-                return repo.findAllByItemOwnerIdAndStatusOrderByStartDesc(ownerId, BookingStatus.WAITING, pageable);
+                return fetchDetails(repo.findAllByItemOwnerIdAndStatusIncludingArchive(
+                        ownerId, BookingStatus.WAITING.name(), pageable));
             case "REJECTED":
-                return repo.findAllByItemOwnerIdAndStatusOrderByStartDesc(ownerId, BookingStatus.REJECTED, pageable);
+                return fetchDetails(repo.findAllByItemOwnerIdAndStatusIncludingArchive(
+                        ownerId, BookingStatus.REJECTED.name(), pageable));
             default:
                 throw new UnsupportedStatusException();
         }
     }
 
-    public Booking getById(long bookingId, long userId) {
-        Booking booking = repo.findById(bookingId).orElseThrow(() -> new NotFoundException("booking", bookingId));
+    @Transactional(readOnly = true)
+    public BookingCountsDto getCountsByBooker(long bookerId) {
+        return countsCache.get(BookingCountsCache.BOOKER, bookerId, () -> {
+            userService.getById(bookerId);
+            return repo.countStatesByBookerId(bookerId, LocalDateTime.now());
+        });
+    }
 
-        boolean isOwner = booking.getItem().getOwner().getId() == userId;
-        boolean isBooker = booking.getBooker().getId() == userId;
+    @Transactional(readOnly = true)
+    public BookingCountsDto getCountsByOwner(long ownerId) {
+        return countsCache.get(BookingCountsCache.OWNER, ownerId, () -> {
+            userService.getById(ownerId);
+            return repo.countStatesByItemOwnerId(ownerId, LocalDateTime.now());
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public Booking getById(long bookingId, long userId) {
+        Booking booking = repo.findById(bookingId)
+                .or(() -> repo.findArchivedById(bookingId).map(this::fetchDetails))
+                .orElseThrow(() -> new NotFoundException("booking", bookingId));
 
-        if (!(isOwner || isBooker)) {
+        if (!isVisibleTo(booking, userId)) {
             throw new NotFoundException("booking", bookingId);
         }
 
         return booking;
     }
 
+    @Transactional(readOnly = true)
+    public List<Booking> getAllById(List<Long> bookingIds, long userId) {
+        List<Long> ids = MultiGet.distinctIds(bookingIds);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Booking> bookings = new ArrayList<>(repo.findAllByIdIn(ids));
+        if (bookings.size() < ids.size()) {
+            Set<Long> found = bookings.stream()
+                    .map(Booking::getId)
+                    .collect(Collectors.toSet());
+            List<Long> archived = ids.stream()
+                    .filter(id -> !found.contains(id))
+                    .collect(Collectors.toList());
+            bookings.addAll(fetchDetails(repo.findArchivedByIdIn(archived)));
+        }
+
+        List<Booking> visible = bookings.stream()
+                .filter(booking -> isVisibleTo(booking, userId))
+                .collect(Collectors.toList());
+        return MultiGet.inRequestOrder(ids, visible, Booking::getId);
+    }
+
+    @Transactional
     public Booking create(long userId, BookingDto dto) {
 
         User booker = userService.getById(userId);
-        Item item = itemRepo.findById(dto.getItemId()).orElseThrow(() -> new NotFoundException("item", dto.getItemId()));
+        Item item = itemRepo.findById(dto.getItemId())
+                .orElseThrow(() -> new NotFoundException("item", dto.getItemId()));
 
         boolean isItemUnavailable = !item.getAvailable();
 
@@ -106,13 +167,8 @@ public class BookingService {
         boolean isEndEqualsStart = booking.getEnd().isEqual(booking.getStart());
 
         List<Booking> bookings = itemService.getAllBookings(item.getId());
-        if (!bookings.isEmpty()) {
-            boolean isNotIntersection = bookings.stream()
-                    .allMatch(b -> booking.getEnd().isBefore(b.getStart()) || booking.getStart().isAfter(b.getEnd()));
-
-            if (!isNotIntersection) {
-                throw new FieldValidationException("start | end", "Item already booked on these dates");
-            }
+        if (BookingTimeline.hasOverlap(bookings, booking.getStart(), booking.getEnd())) {
+            throw new FieldValidationException("start | end", "Item already booked on these dates");
         }
 
         if (isStartInPast ||
@@ -126,9 +182,12 @@ public class BookingService {
         booking.setBooker(booker);
         booking.setItem(item);
 
-        return repo.save(booking);
+        Booking created = fetchDetails(repo.save(booking));
+        countsCache.evict(userId, item.getOwner().getId());
+        return created;
     }
 
+    @Transactional
     public Booking update(long bookingId, long ownerId, boolean approved) {
         Booking booking = repo.findById(bookingId).orElseThrow(() -> new NotFoundException("booking", bookingId));
 
@@ -147,6 +206,36 @@ public class BookingService {
         BookingStatus newStatus = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
         booking.setStatus(newStatus);
 
-        return repo.save(booking);
+        Booking updated = repo.save(booking);
+        countsCache.evict(ownerId, booking.getBooker().getId());
+        if (newStatus == BookingStatus.APPROVED) {
+            occupancyJob.recordApproved(updated);
+        }
+        return updated;
+    }
+
+    private boolean isVisibleTo(Booking booking, long userId) {
+        boolean isOwner = booking.getItem().getOwner().getId() == userId;
+        boolean isBooker = booking.getBooker().getId() == userId;
+
+        return isOwner || isBooker;
+    }
+
+    private List<Booking> fetchDetails(List<Booking> bookings) {
+        bookings.forEach(this::fetchDetails);
+        return bookings;
+    }
+
+    // native queries over the archive can't use Booking.DETAILS, proxies are initialized in batches instead
+    private Booking fetchDetails(Booking booking) {
+        Item item = booking.getItem();
+        Hibernate.initialize(item);
+        Hibernate.initialize(item.getOwner());
+        Hibernate.initialize(item.getRequest());
+        if (item.getRequest() != null) {
+            Hibernate.initialize(item.getRequest().getUser());
+        }
+        Hibernate.initialize(booking.getBooker());
+        return booking;
     }
 }
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class BookingTimeline {
+    public static Booking findNext(List<Booking> bookings, LocalDateTime now) {
+        return bookings.stream()
+                .filter(booking -> booking.getStart().isAfter(now) && booking.getStatus() != BookingStatus.REJECTED)
+                .min(Comparator.comparing(Booking::getStart))
+                .orElse(null);
+    }
+
+    public static Booking findLast(List<Booking> bookings, LocalDateTime now) {
+        return bookings.stream()
+                .filter(booking -> booking.getEnd().isBefore(now) ||
+                        (booking.getStart().isBefore(now) && booking.getEnd().isAfter(now)))
+                .max(Comparator.comparing(Booking::getStart))
+                .orElse(null);
+    }
+
+    public static boolean hasOverlap(List<Booking> bookings, LocalDateTime start, LocalDateTime end) {
+        return bookings.stream()
+                .anyMatch(b -> !end.isBefore(b.getStart()) && !start.isAfter(b.getEnd()));
+    }
+}
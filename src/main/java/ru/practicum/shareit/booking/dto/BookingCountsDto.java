@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Value;
+
+/**
+ * Number of bookings per state of the booking list endpoints.
+ */
+@Value
+public class BookingCountsDto {
+    long all;
+    long current;
+    long past;
+    long future;
+    long waiting;
+    long rejected;
+}
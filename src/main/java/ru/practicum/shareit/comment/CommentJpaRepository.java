@@ -1,17 +1,28 @@
 package ru.practicum.shareit.comment;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentJpaRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItemId(long itemId);
+    @EntityGraph(attributePaths = "author")
+    List<Comment> findAllByItemIdOrderByIdDesc(long itemId, Pageable pageable);
 
-    @Query("select c " +
-            "from Comment c " +
-            "where c.item.owner.id = :userId "
+    @EntityGraph(attributePaths = "author")
+    List<Comment> findAllByItemIdAndIdLessThanOrderByIdDesc(long itemId, long id, Pageable pageable);
+
+    @Query(value = "select ranked.comment_id, ranked.text, ranked.item_id, ranked.author_id, ranked.created " +
+            "from (select c.comment_id, c.text, c.item_id, c.author_id, c.created, " +
+            "row_number() over (partition by c.item_id order by c.comment_id desc) as rn " +
+            "from comment c " +
+            "where c.item_id in (:itemIds)) ranked " +
+            "where ranked.rn <= :limit",
+            nativeQuery = true
     )
-    List<Comment> findAllByItem_Owner_Id(@Param("userId") long userId);
-}
\ No newline at end of file
+    List<Comment> findLatestByItemIds(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
+}
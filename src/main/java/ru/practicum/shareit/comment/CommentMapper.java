@@ -10,5 +10,6 @@ public interface CommentMapper {
     Comment toComment(CreateCommentDto commentDto);
 
     @Mapping(target = "authorName", source = "comment.author.name")
+    @Mapping(target = "authorId", source = "comment.author.id")
     CommentDto toCommentDto(Comment comment);
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.comment.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 
 import java.time.LocalDateTime;
@@ -13,5 +14,8 @@ public class CommentDto {
     private long id;
     private String text;
     private String authorName;
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private Long authorId;
     private LocalDateTime created;
 }
\ No newline at end of file
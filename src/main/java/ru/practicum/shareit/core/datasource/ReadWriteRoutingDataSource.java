@@ -0,0 +1,37 @@
+package ru.practicum.shareit.core.datasource;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions of GET requests to the replica, everything else to the primary.
+ * Must be wrapped in a LazyConnectionDataSourceProxy, otherwise the connection is taken
+ * before the transaction is marked read-only.
+ */
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    ReadYourWrites readYourWrites;
+
+    public enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        RoutingContext context = RoutingContext.current();
+        if (context == null
+                || !context.isReplicaAllowed()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || readYourWrites.wroteRecently(context.getUserId())) {
+            return Target.PRIMARY;
+        }
+
+        context.markReplicaRead();
+        return Target.REPLICA;
+    }
+}
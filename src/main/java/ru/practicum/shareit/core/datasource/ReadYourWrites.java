@@ -0,0 +1,64 @@
+package ru.practicum.shareit.core.datasource;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers users who wrote recently, their reads stay on the primary until the replica has caught up.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReadYourWrites {
+    long windowNanos;
+    int maxUsers;
+    LongSupplier clock;
+    Map<Long, Long> lastWrites = new ConcurrentHashMap<>();
+    AtomicLong primaryOnlyUntil;
+
+    public ReadYourWrites(Duration window, int maxUsers) {
+        this(window, maxUsers, System::nanoTime);
+    }
+
+    ReadYourWrites(Duration window, int maxUsers, LongSupplier clock) {
+        this.windowNanos = window.toNanos();
+        this.maxUsers = maxUsers;
+        this.clock = clock;
+        this.primaryOnlyUntil = new AtomicLong(clock.getAsLong());
+    }
+
+    public void recordWrite(Long userId) {
+        if (userId == null) {
+            return;
+        }
+
+        long now = clock.getAsLong();
+        if (lastWrites.size() >= maxUsers) {
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt >= windowNanos);
+            if (lastWrites.size() >= maxUsers) {
+                // forgotten writers could read stale data, so everyone reads from the primary for one window
+                primaryOnlyUntil.set(now + windowNanos);
+                lastWrites.clear();
+            }
+        }
+        lastWrites.put(userId, now);
+    }
+
+    public boolean wroteRecently(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+
+        long now = clock.getAsLong();
+        if (now - primaryOnlyUntil.get() < 0) {
+            return true;
+        }
+
+        Long writtenAt = lastWrites.get(userId);
+        return writtenAt != null && now - writtenAt < windowNanos;
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.core.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.datasource.replica")
+public class ReplicaDataSourceProperties {
+    private String url;
+    private String username;
+    private String password;
+    private String driverClassName;
+    /**
+     * How long a user's reads stay on the primary after a write, should exceed the replication lag.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+    private int maxTrackedWriters = 100_000;
+}
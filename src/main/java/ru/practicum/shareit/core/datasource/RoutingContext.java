@@ -0,0 +1,44 @@
+package ru.practicum.shareit.core.datasource;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Per-request routing state, only present while a web request is being handled.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public final class RoutingContext {
+    private static final ThreadLocal<RoutingContext> CURRENT = new ThreadLocal<>();
+
+    final Long userId;
+    final boolean replicaAllowed;
+    boolean replicaRead;
+
+    /**
+     * @return true if data for the current request was read from the replica, which may lag behind
+     */
+    public static boolean isReplicaRead() {
+        RoutingContext context = CURRENT.get();
+        return context != null && context.replicaRead;
+    }
+
+    static RoutingContext current() {
+        return CURRENT.get();
+    }
+
+    static void begin(Long userId, boolean replicaAllowed) {
+        CURRENT.set(new RoutingContext(userId, replicaAllowed));
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    void markReplicaRead() {
+        replicaRead = true;
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.core.etag;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.core.datasource.RoutingContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ConditionalGetCache {
+    private static final int MAX_ENTRIES = 10_000;
+
+    EntityVersions versions;
+    Map<String, CachedResource> resources = new ConcurrentHashMap<>();
+
+    public <T> Optional<ResponseEntity<T>> checkNotModified(String resource, Long viewerId, String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return Optional.empty();
+        }
+
+        CachedResource cached = resources.get(resource);
+        if (cached == null || !cached.viewers.test(viewerId)) {
+            return Optional.empty();
+        }
+
+        String etag = computeEtag(cached.components);
+        if (!cached.etag.equals(etag)) {
+            resources.remove(resource, cached);
+            return Optional.empty();
+        }
+
+        return matches(ifNoneMatch, etag) ? Optional.of(notModified(etag)) : Optional.empty();
+    }
+
+    public <T> ResponseEntity<T> respond(String resource, List<String> components, Predicate<Long> viewers,
+                                         Long viewerId, String ifNoneMatch, T body) {
+        // a lagging replica may have returned an older row than the versions recorded from the primary
+        String etag = viewers.test(viewerId) && !RoutingContext.isReplicaRead() ? computeEtag(components) : null;
+        if (etag == null) {
+            return ResponseEntity.ok(body);
+        }
+
+        if (resources.size() >= MAX_ENTRIES) {
+            resources.clear();
+        }
+        resources.put(resource, new CachedResource(etag, components, viewers));
+
+        if (ifNoneMatch != null && matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).body(body);
+    }
+
+    private String computeEtag(List<String> components) {
+        StringBuilder signature = new StringBuilder();
+        for (String component : components) {
+            Long version = versions.current(component);
+            if (version == null) {
+                return null;
+            }
+            signature.append(component).append('=').append(version).append(';');
+        }
+
+        return "\"" + UUID.nameUUIDFromBytes(signature.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class CachedResource {
+        String etag;
+        List<String> components;
+        Predicate<Long> viewers;
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.core.etag;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.io.Serializable;
+
+/**
+ * Writes are recorded once their transaction commits, so a rolled back change never leaves its version behind.
+ */
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class EntityVersionListener implements PostLoadEventListener, PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+    EntityManagerFactory entityManagerFactory;
+    EntityVersions versions;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_LOAD, this);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        record(event.getPersister(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        record(event.getPersister(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        record(event.getPersister(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getPersister().isVersioned()) {
+            versions.markDeleted(EntityVersions.key(event.getPersister().getEntityName(), event.getId()));
+        }
+    }
+
+    // a load inside the failed transaction may have recorded the uncommitted version
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        forget(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        forget(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.isVersioned();
+    }
+
+    // still abstract in Hibernate 5.6, only the correctly spelled method above is called
+    @Override
+    @Deprecated
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+
+    private void forget(EntityPersister persister, Serializable id) {
+        if (persister.isVersioned()) {
+            versions.forget(EntityVersions.key(persister.getEntityName(), id));
+        }
+    }
+
+    private void record(EntityPersister persister, Serializable id, Object entity) {
+        if (persister == null || !persister.isVersioned()) {
+            return;
+        }
+
+        Object version = persister.getVersion(entity);
+        if (version instanceof Number) {
+            versions.record(EntityVersions.key(persister.getEntityName(), id), ((Number) version).longValue());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.core.etag;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class EntityVersions {
+    private static final int MAX_ENTRIES = 100_000;
+    private static final long DELETED = Long.MAX_VALUE;
+
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+
+    public static String key(Class<?> type, Object id) {
+        return key(type.getName(), id);
+    }
+
+    static String key(String entityName, Object id) {
+        return entityName + "#" + id;
+    }
+
+    public Long current(String key) {
+        Long version = versions.get(key);
+        return version == null || version == DELETED ? null : version;
+    }
+
+    public void evict(Class<?> type, Object id) {
+        String key = key(type, id);
+        // evicting before commit lets a concurrent read record the old version again
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    versions.remove(key);
+                }
+            });
+        } else {
+            versions.remove(key);
+        }
+    }
+
+    void record(String key, long version) {
+        if (versions.size() >= MAX_ENTRIES) {
+            versions.clear();
+        }
+        // a concurrent load of an older row must not overwrite a newer version
+        versions.merge(key, version, Math::max);
+    }
+
+    void forget(String key) {
+        versions.remove(key);
+    }
+
+    void markDeleted(String key) {
+        versions.put(key, DELETED);
+    }
+}
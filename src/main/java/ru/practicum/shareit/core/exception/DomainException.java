@@ -0,0 +1,11 @@
+package ru.practicum.shareit.core.exception;
+
+/**
+ * Base for expected business errors that are mapped to 4xx responses.
+ * Stack traces are not filled in, they are never logged and only cost CPU on hot paths.
+ */
+public abstract class DomainException extends RuntimeException {
+    protected DomainException(String message) {
+        super(message, null, false, false);
+    }
+}
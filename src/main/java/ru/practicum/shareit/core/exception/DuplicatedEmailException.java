@@ -1,6 +1,6 @@
 package ru.practicum.shareit.core.exception;
 
-public class DuplicatedEmailException extends RuntimeException {
+public class DuplicatedEmailException extends DomainException {
     public DuplicatedEmailException(String email) {
         super("User with email = " + email + " already exists");
     }
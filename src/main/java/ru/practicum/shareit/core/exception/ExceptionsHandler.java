@@ -1,12 +1,14 @@
 package ru.practicum.shareit.core.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -15,37 +17,47 @@ import java.util.stream.Collectors;
 @RestControllerAdvice
 @ResponseStatus(HttpStatus.BAD_REQUEST)
 public class ExceptionsHandler {
+    private final LogSampler sampler = new LogSampler(Duration.ofSeconds(1));
 
     @ExceptionHandler
     public List<FieldError> fieldValidationExceptionHandler(MethodArgumentNotValidException exception) {
-        log.error("Invalid arguments", exception);
-        return exception
+        List<FieldError> errors = exception
                 .getFieldErrors()
                 .stream()
                 .map(error -> new FieldError(error.getField(), error.getDefaultMessage()))
                 .collect(Collectors.toList());
+        logExpected("Invalid arguments", exception.getClass().getSimpleName(), errors);
+        return errors;
     }
 
     @ExceptionHandler
     public List<FieldError> fieldValidationExceptionHandler(FieldValidationException exception) {
-        log.error("Invalid arguments", exception);
+        logExpected("Invalid arguments", exception);
         return List.of(new FieldError(exception.getField(), exception.getDescription()));
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public Map<String, String> notFoundExceptionHandler(NotFoundException exception) {
-        log.error("Entity not found", exception);
+        logExpected("Entity not found", exception);
         return Map.of("error", exception.getMessage());
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.CONFLICT)
     public Map<String, String> duplicatedExceptionHandler(DuplicatedEmailException exception) {
-        log.error("Duplicated email", exception);
+        logExpected("Duplicated email", exception);
         return Map.of("error", exception.getMessage());
     }
 
+    // another request changed the same entity between our read and write, the client can retry
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> optimisticLockingFailureHandler(OptimisticLockingFailureException exception) {
+        logExpected("Concurrent modification", exception.getClass().getSimpleName(), exception.getMessage());
+        return Map.of("error", "The entity was changed by another request, retry with fresh data");
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public Map<String, String> internalServerErrorHandler(Exception exception) {
@@ -56,7 +68,24 @@ public class ExceptionsHandler {
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public Map<String, String> unsupportedStatusExceptionHandler(UnsupportedStatusException exception) {
-        log.error("Unsupported status of booking", exception);
+        logExpected("Unsupported status of booking", exception);
         return Map.of("error", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    private void logExpected(String summary, DomainException exception) {
+        logExpected(summary, exception.getClass().getSimpleName(), exception.getMessage());
+    }
+
+    // client errors are routine, so they go without stack traces and at most once a second per type
+    private void logExpected(String summary, String category, Object details) {
+        if (log.isDebugEnabled()) {
+            log.debug("{}: {}", summary, details);
+            return;
+        }
+
+        long dropped = sampler.sample(category);
+        if (dropped != LogSampler.DROPPED && log.isInfoEnabled()) {
+            log.info("{}: {} ({} similar errors not logged)", summary, details, dropped);
+        }
+    }
+}
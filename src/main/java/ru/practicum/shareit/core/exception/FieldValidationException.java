@@ -1,20 +1,18 @@
 package ru.practicum.shareit.core.exception;
 
-import lombok.Data;
+import lombok.Getter;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
-@Data
+@Getter
 @ResponseStatus(HttpStatus.BAD_REQUEST)
-public class FieldValidationException extends RuntimeException {
+public class FieldValidationException extends DomainException {
     private final String field;
     private final String description;
 
-    public String getField() {
-        return field;
-    }
-
-    public String getDescription() {
-        return description;
+    public FieldValidationException(String field, String description) {
+        super(field + ": " + description);
+        this.field = field;
+        this.description = description;
     }
 }
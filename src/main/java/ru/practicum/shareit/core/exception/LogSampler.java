@@ -0,0 +1,54 @@
+package ru.practicum.shareit.core.exception;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lets through at most one event per category and interval, counting the ones it drops.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+class LogSampler {
+    static final long DROPPED = -1;
+
+    long intervalNanos;
+    LongSupplier clock;
+    Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    LogSampler(Duration interval) {
+        this(interval, System::nanoTime);
+    }
+
+    LogSampler(Duration interval, LongSupplier clock) {
+        this.intervalNanos = interval.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * @return {@link #DROPPED} if the event should not be logged,
+     * otherwise the number of events dropped since the last logged one
+     */
+    long sample(String category) {
+        long now = clock.getAsLong();
+        Window window = windows.computeIfAbsent(category, key -> new Window());
+
+        long nextLogAt = window.nextLogAt.get();
+        if (now - nextLogAt >= 0 && window.nextLogAt.compareAndSet(nextLogAt, now + intervalNanos)) {
+            return window.dropped.getAndSet(0);
+        }
+
+        window.dropped.incrementAndGet();
+        return DROPPED;
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private class Window {
+        AtomicLong nextLogAt = new AtomicLong(clock.getAsLong());
+        AtomicLong dropped = new AtomicLong();
+    }
+}
@@ -1,6 +1,6 @@
 package ru.practicum.shareit.core.exception;
 
-public class NotFoundException extends RuntimeException {
+public class NotFoundException extends DomainException {
     public NotFoundException(String entity, long id) {
         super(entity + " with id=" + id + " not found");
     }
@@ -1,6 +1,6 @@
 package ru.practicum.shareit.core.exception;
 
-public class UnsupportedStatusException extends RuntimeException {
+public class UnsupportedStatusException extends DomainException {
     public UnsupportedStatusException() {
         super("Unknown state: UNSUPPORTED_STATUS");
     }
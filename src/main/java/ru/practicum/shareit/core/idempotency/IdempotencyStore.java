@@ -0,0 +1,121 @@
+package ru.practicum.shareit.core.idempotency;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.core.exception.FieldValidationException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class IdempotencyStore {
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int MAX_ENTRIES = 10_000;
+    private static final int MAX_SKIPPED_IN_FLIGHT = 16;
+    private static final Duration TTL = Duration.ofHours(24);
+
+    int maxEntries;
+    Map<String, Entry> entries = new ConcurrentHashMap<>();
+    Queue<Map.Entry<String, Entry>> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    public IdempotencyStore() {
+        this(MAX_ENTRIES);
+    }
+
+    IdempotencyStore(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public <T> T execute(String scope, Long userId, String key, Object payload, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new FieldValidationException(HEADER, "Key must be 1-" + MAX_KEY_LENGTH + " characters long");
+        }
+
+        long now = System.currentTimeMillis();
+        String storeKey = scope + ":" + userId + ":" + key;
+        Entry created = new Entry(payload, new CompletableFuture<>(), now + TTL.toMillis());
+
+        Entry current = entries.compute(storeKey,
+                (k, existing) -> existing == null || existing.isExpired(now) ? created : existing);
+
+        if (current != created) {
+            return replay(current, payload);
+        }
+
+        insertionOrder.add(Map.entry(storeKey, created));
+        evictIfFull(now);
+
+        try {
+            T result = action.get();
+            created.response.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            // failed attempts are not remembered, so the client can retry with the same key
+            entries.remove(storeKey, created);
+            created.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T replay(Entry entry, Object payload) {
+        if (!Objects.equals(entry.payload, payload)) {
+            throw new FieldValidationException(HEADER, "Key was already used with a different request");
+        }
+
+        try {
+            return (T) entry.response.join();
+        } catch (CompletionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    /**
+     * Drops the oldest entries, which expire first as all share one TTL. Requests still in flight are moved to the
+     * back a few times before they are dropped too, so a full store never scans all of its entries.
+     */
+    private void evictIfFull(long now) {
+        int skipped = 0;
+        while (entries.size() > maxEntries) {
+            Map.Entry<String, Entry> oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+
+            Entry entry = oldest.getValue();
+            if (entry.isExpired(now) || entry.response.isDone() || skipped++ >= MAX_SKIPPED_IN_FLIGHT) {
+                entries.remove(oldest.getKey(), entry);
+            } else {
+                insertionOrder.add(oldest);
+            }
+        }
+    }
+
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class Entry {
+        Object payload;
+        CompletableFuture<Object> response;
+        long expiresAt;
+
+        boolean isExpired(long now) {
+            return expiresAt <= now;
+        }
+    }
+}
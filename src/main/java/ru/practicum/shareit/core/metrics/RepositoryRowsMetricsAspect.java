@@ -0,0 +1,79 @@
+package ru.practicum.shareit.core.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.BaseStream;
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RepositoryRowsMetricsAspect {
+    public static final String METRIC_NAME = "shareit.repository.rows";
+
+    MeterRegistry meterRegistry;
+    Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    @AfterReturning(
+            pointcut = "execution(* org.springframework.data.repository.Repository+.*(..))",
+            returning = "result"
+    )
+    public void recordRows(JoinPoint joinPoint, Object result) {
+        // streams are read after the call returns; flags, counts and update counts aren't returned rows
+        if (result == null || result instanceof BaseStream || result instanceof Boolean || result instanceof Number) {
+            return;
+        }
+
+        String repository = getRepositoryName(joinPoint);
+        String method = joinPoint.getSignature().getName();
+
+        summaries.computeIfAbsent(repository + "." + method, key -> DistributionSummary.builder(METRIC_NAME)
+                        .description("Rows returned by a repository method")
+                        .baseUnit("rows")
+                        .tag("repository", repository)
+                        .tag("method", method)
+                        .register(meterRegistry))
+                .record(countRows(result));
+    }
+
+    private static String getRepositoryName(JoinPoint joinPoint) {
+        for (Class<?> type : AopProxyUtils.proxiedUserInterfaces(joinPoint.getThis())) {
+            if (Repository.class.isAssignableFrom(type) && !type.getName().startsWith("org.springframework")) {
+                return type.getSimpleName();
+            }
+        }
+
+        return joinPoint.getSignature().getDeclaringType().getSimpleName();
+    }
+
+    private static long countRows(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+
+        return 1;
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.core.pagination;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.core.exception.FieldValidationException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Helpers for {@code GET ...?ids=1,2,3} endpoints that resolve several entities with one IN-query.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class MultiGet {
+    public static final int MAX_IDS = 100;
+
+    public static List<Long> distinctIds(List<Long> ids) {
+        List<Long> distinct = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+
+        if (distinct.size() > MAX_IDS) {
+            throw new FieldValidationException("ids", "At most " + MAX_IDS + " ids are allowed");
+        }
+
+        return distinct;
+    }
+
+    /**
+     * Orders found entities as the ids were requested, ids without an entity are skipped.
+     */
+    public static <T> List<T> inRequestOrder(List<Long> ids, Collection<T> entities, Function<T, Long> idOf) {
+        Map<Long, T> byId = entities.stream()
+                .collect(Collectors.toMap(idOf, Function.identity(), (first, second) -> first));
+
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.core.ratelimit;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String ANONYMOUS = "anonymous@";
+    private static final String BODY = "{\"error\":\"Too many requests\"}";
+
+    RateLimitProperties properties;
+    RateLimiter rateLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (!properties.isEnabled() || !(handler instanceof HandlerMethod)) {
+            return true;
+        }
+
+        RateLimited rateLimited = findAnnotation((HandlerMethod) handler);
+        if (rateLimited == null) {
+            return true;
+        }
+
+        String caller = callerOf(request);
+        long waitNanos = rateLimiter.tryAcquire(rateLimited.value(), caller);
+        if (waitNanos == 0) {
+            return true;
+        }
+
+        log.debug("Rate limit exceeded for {} on {}", caller, rateLimited.value());
+        long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write(BODY);
+        return false;
+    }
+
+    private static RateLimited findAnnotation(HandlerMethod handler) {
+        RateLimited rateLimited = handler.getMethodAnnotation(RateLimited.class);
+        return rateLimited != null ? rateLimited : handler.getBeanType().getAnnotation(RateLimited.class);
+    }
+
+    /**
+     * The user id, or for a missing or malformed header the remote address, so that anonymous callers don't
+     * throttle each other. Callers behind one proxy share its address.
+     */
+    private static String callerOf(HttpServletRequest request) {
+        String header = request.getHeader(USER_ID_HEADER);
+        if (header != null) {
+            try {
+                return String.valueOf(Long.parseLong(header.trim()));
+            } catch (NumberFormatException e) {
+                // the controller rejects it, the call still counts against the address
+            }
+        }
+        return ANONYMOUS + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.core.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private int maxBuckets = 100_000;
+    private Limit defaultLimit = new Limit();
+    private Map<String, Limit> limits = new HashMap<>();
+
+    public Limit getLimit(String endpoint) {
+        return limits.getOrDefault(endpoint, defaultLimit);
+    }
+
+    @Getter
+    @Setter
+    public static class Limit {
+        private int capacity = 60;
+        private double refillPerSecond = 10;
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.core.ratelimit;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+    /**
+     * Endpoint class the call is counted against, see {@code shareit.rate-limit.limits.*}.
+     */
+    String value();
+}
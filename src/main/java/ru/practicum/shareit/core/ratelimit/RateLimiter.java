@@ -0,0 +1,81 @@
+package ru.practicum.shareit.core.ratelimit;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RateLimiter {
+    private static final int MAX_SWEPT_THROTTLED = 64;
+
+    RateLimitProperties properties;
+    LongSupplier clock;
+    Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    Queue<Map.Entry<String, TokenBucket>> sweepOrder = new ConcurrentLinkedQueue<>();
+
+    @Autowired
+    public RateLimiter(RateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    RateLimiter(RateLimitProperties properties, LongSupplier clock) {
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    /**
+     * @param caller user id, or the remote address of an anonymous caller
+     * @return 0 if the call is allowed, otherwise nanoseconds the caller should wait before retrying
+     */
+    public long tryAcquire(String endpoint, String caller) {
+        long now = clock.getAsLong();
+        String key = endpoint + ":" + caller;
+
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            evictIfFull(now);
+            RateLimitProperties.Limit limit = properties.getLimit(endpoint);
+            TokenBucket created = new TokenBucket(limit.getCapacity(), limit.getRefillPerSecond(), now);
+            bucket = buckets.computeIfAbsent(key, k -> created);
+            if (bucket == created) {
+                sweepOrder.add(Map.entry(key, created));
+            }
+        }
+
+        return bucket.tryConsume(now);
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Sweeps the buckets from the oldest on. Full buckets carry no state, dropping them is the same as starting over;
+     * buckets still refilling get another round at the back, and one is dropped only when a whole bounded sweep
+     * found no full bucket.
+     */
+    private void evictIfFull(long now) {
+        int swept = 0;
+        while (buckets.size() >= properties.getMaxBuckets()) {
+            Map.Entry<String, TokenBucket> oldest = sweepOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+
+            TokenBucket bucket = oldest.getValue();
+            if (bucket.isFull(now) || swept++ >= Math.min(MAX_SWEPT_THROTTLED, buckets.size())) {
+                buckets.remove(oldest.getKey(), bucket);
+            } else {
+                sweepOrder.add(oldest);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.core.ratelimit;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+class TokenBucket {
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    double capacity;
+    double tokensPerNano;
+    AtomicReference<State> state;
+
+    TokenBucket(int capacity, double refillPerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / NANOS_PER_SECOND;
+        this.state = new AtomicReference<>(new State(capacity, nowNanos));
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return 0 if the call is allowed, otherwise nanoseconds until the next token is refilled
+     */
+    long tryConsume(long nowNanos) {
+        while (true) {
+            State current = state.get();
+            double tokens = refill(current, nowNanos);
+            if (tokens < 1) {
+                return (long) Math.ceil((1 - tokens) / tokensPerNano);
+            }
+
+            if (state.compareAndSet(current, new State(tokens - 1, Math.max(nowNanos, current.updatedAt)))) {
+                return 0;
+            }
+        }
+    }
+
+    boolean isFull(long nowNanos) {
+        return refill(state.get(), nowNanos) >= capacity;
+    }
+
+    private double refill(State current, long nowNanos) {
+        long elapsed = Math.max(0, nowNanos - current.updatedAt);
+        return Math.min(capacity, current.tokens + elapsed * tokensPerNano);
+    }
+
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class State {
+        double tokens;
+        long updatedAt;
+    }
+}
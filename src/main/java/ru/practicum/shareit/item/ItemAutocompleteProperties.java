@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit.item-autocomplete")
+public class ItemAutocompleteProperties {
+    /**
+     * Most index keys held in memory, one per word of every available item name. A fuller index is no longer
+     * updated and suggestions are read from the database instead, until deletes bring it below 90% and it is reloaded.
+     */
+    private int maxEntries = 500_000;
+}
@@ -1,22 +1,43 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.core.etag.ConditionalGetCache;
+import ru.practicum.shareit.core.etag.EntityVersions;
+import ru.practicum.shareit.core.idempotency.IdempotencyStore;
+import ru.practicum.shareit.core.ratelimit.RateLimited;
 import ru.practicum.shareit.comment.dto.CreateCommentDto;
 import ru.practicum.shareit.item.dto.CreateItemDto;
+import ru.practicum.shareit.item.dto.DailyOccupancyDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.dto.ItemUtilizationDto;
 import ru.practicum.shareit.item.dto.UpdateItemDto;
+import ru.practicum.shareit.item.service.ItemAnalyticsService;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.core.pagination.PaginationMapper;
+import ru.practicum.shareit.user.User;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequiredArgsConstructor
@@ -26,34 +47,110 @@ import java.util.List;
 public class ItemController {
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
     ItemService service;
+    ConditionalGetCache conditionalGetCache;
+    IdempotencyStore idempotencyStore;
+    ObjectMapper objectMapper;
+    ItemAnalyticsService analyticsService;
 
     @GetMapping
-    public List<ItemDto> getByUserId(@RequestHeader(required = true, name = USER_ID_HEADER) Long userId,
-                                     @PositiveOrZero @RequestParam(required = false) Integer from,
-                                     @PositiveOrZero @RequestParam(required = false) Integer size) {
-        return service.getByUserId(userId, PaginationMapper.toPageable(from, size));
+    public List<?> getByUserId(@RequestHeader(required = true, name = USER_ID_HEADER) Long userId,
+                               @PositiveOrZero @RequestParam(required = false) Integer from,
+                               @PositiveOrZero @RequestParam(required = false) Integer size,
+                               @RequestParam(required = false) String fields) {
+        if (fields == null) {
+            return service.getByUserId(userId, PaginationMapper.toPageable(from, size));
+        }
+
+        ItemFields itemFields = ItemFields.parse(fields);
+        return itemFields.select(
+                service.getByUserId(userId, PaginationMapper.toPageable(from, size), itemFields), objectMapper);
+    }
+
+    @GetMapping(params = "ids")
+    public List<ItemDto> getAllById(@RequestHeader(required = false, name = USER_ID_HEADER) Long userId,
+                                    @RequestParam List<Long> ids) {
+        return service.getAllById(ids, userId);
     }
 
     @GetMapping("/search")
-    public List<ItemDto> search(
+    @RateLimited("search")
+    public List<?> search(
             @RequestParam(required = false) String text,
             @PositiveOrZero @RequestParam(required = false) Integer from,
-            @PositiveOrZero @RequestParam(required = false) Integer size) {
-        return service.searchByText(text, PaginationMapper.toPageable(from, size));
+            @PositiveOrZero @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        if (fields == null) {
+            return service.searchByText(text, PaginationMapper.toPageable(from, size));
+        }
 
+        ItemFields itemFields = ItemFields.parse(fields);
+        return itemFields.select(
+                service.searchByText(text, PaginationMapper.toPageable(from, size), itemFields), objectMapper);
+    }
+
+    @GetMapping("/autocomplete")
+    public List<ItemSuggestionDto> autocomplete(
+            @RequestParam(required = false) String prefix,
+            @Positive @Max(50) @RequestParam(defaultValue = "10") int limit) {
+        return service.autocomplete(prefix, limit);
+    }
+
+    @GetMapping("/utilization")
+    public List<ItemUtilizationDto> getUtilization(
+            @RequestHeader(name = USER_ID_HEADER) long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return analyticsService.getUtilizationByOwner(userId, from, to);
+    }
+
+    @GetMapping("/{id}/utilization")
+    public List<DailyOccupancyDto> getDailyOccupancy(
+            @PathVariable long id,
+            @RequestHeader(name = USER_ID_HEADER) long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return analyticsService.getDailyOccupancy(id, userId, from, to);
     }
 
     @GetMapping("/{id}")
-    public ItemDto getById(@PathVariable long id,
-                           @RequestHeader(required = false, name = USER_ID_HEADER) Long userId) {
-        return service.getById(id, userId);
+    public ResponseEntity<ItemDto> getById(
+            @PathVariable long id,
+            @RequestHeader(required = false, name = USER_ID_HEADER) Long userId,
+            @RequestHeader(required = false, name = HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        String resource = "item:" + id;
+        Optional<ResponseEntity<ItemDto>> notModified = conditionalGetCache
+                .checkNotModified(resource, userId, ifNoneMatch);
+        if (notModified.isPresent()) {
+            return notModified.get();
+        }
+
+        ItemDto item = service.getById(id, userId);
+        Long ownerId = item.getOwner() == null ? null : item.getOwner().getId();
+
+        // owners get booking dates that move with time, so only other viewers are served conditionally
+        return conditionalGetCache.respond(resource, versionKeys(item),
+                viewerId -> !Objects.equals(viewerId, ownerId), userId, ifNoneMatch, item);
+    }
+
+    // the owner and comment author names are part of the body, renaming them has to change the ETag
+    private static List<String> versionKeys(ItemDto item) {
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(EntityVersions.key(Item.class, item.getId()));
+        if (item.getOwner() != null) {
+            keys.add(EntityVersions.key(User.class, item.getOwner().getId()));
+        }
+        if (item.getComments() != null) {
+            item.getComments().forEach(comment -> keys.add(EntityVersions.key(User.class, comment.getAuthorId())));
+        }
+        return new ArrayList<>(keys);
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public ItemDto create(@RequestHeader(required = false, name = USER_ID_HEADER) Long userId,
+                          @RequestHeader(required = false, name = IdempotencyStore.HEADER) String idempotencyKey,
                           @Valid @RequestBody CreateItemDto dto) {
-        return service.create(userId, dto);
+        return idempotencyStore.execute("item", userId, idempotencyKey, dto, () -> service.create(userId, dto));
     }
 
     @PatchMapping("/{id}")
@@ -69,12 +166,23 @@ public class ItemController {
         return service.delete(id);
     }
 
+    @GetMapping("/{id}/comments")
+    public List<CommentDto> getComments(
+            @PathVariable long id,
+            @Positive @RequestParam(required = false) Long cursor,
+            @Positive @RequestParam(defaultValue = "10") int size
+    ) {
+        return service.getComments(id, cursor, size);
+    }
+
     @PostMapping("/{id}/comment")
     public CommentDto comment(
             @PathVariable long id,
             @RequestHeader(name = USER_ID_HEADER) long userId,
+            @RequestHeader(required = false, name = IdempotencyStore.HEADER) String idempotencyKey,
             @Valid @RequestBody CreateCommentDto dto
     ) {
-        return service.comment(id, userId, dto);
+        return idempotencyStore.execute("comment:" + id, userId, idempotencyKey, dto,
+                () -> service.comment(id, userId, dto));
     }
 }
\ No newline at end of file
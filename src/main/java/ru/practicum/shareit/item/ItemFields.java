@@ -0,0 +1,96 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.core.exception.FieldValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse fieldset of {@link ItemDto} requested with {@code fields=name,available}.
+ */
+@EqualsAndHashCode
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ItemFields {
+    public static final String OWNER = "owner";
+    public static final String REQUEST_ID = "requestId";
+    public static final String LAST_BOOKING = "lastBooking";
+    public static final String NEXT_BOOKING = "nextBooking";
+    public static final String COMMENTS = "comments";
+
+    /**
+     * Fields read from the item table, in {@link ItemDto} order.
+     */
+    public static final List<String> COLUMNS = List.of("id", "name", "description", "available", OWNER, REQUEST_ID,
+            "commentCount", "lastCommentAt");
+    public static final ItemFields ALL = new ItemFields(Collections.unmodifiableSet(new LinkedHashSet<>(
+            List.of("id", "name", "description", "available", OWNER, LAST_BOOKING, NEXT_BOOKING, COMMENTS,
+                    REQUEST_ID, "commentCount", "lastCommentAt"))));
+    private static final TypeReference<LinkedHashMap<String, Object>> JSON_OBJECT = new TypeReference<>() {
+    };
+
+    Set<String> fields;
+
+    public static ItemFields parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+
+        Set<String> requested = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        for (String field : requested) {
+            if (!ALL.fields.contains(field)) {
+                throw new FieldValidationException("fields", "Unknown item field: " + field);
+            }
+        }
+
+        return requested.containsAll(ALL.fields) ? ALL : new ItemFields(Collections.unmodifiableSet(requested));
+    }
+
+    public boolean isAll() {
+        return this == ALL;
+    }
+
+    public boolean includes(String field) {
+        return fields.contains(field);
+    }
+
+    public boolean includesBookings() {
+        return includes(LAST_BOOKING) || includes(NEXT_BOOKING);
+    }
+
+    /**
+     * Item table columns to select, the id is always read to attach bookings and comments.
+     */
+    public List<String> columns() {
+        return COLUMNS.stream()
+                .filter(column -> column.equals("id") || fields.contains(column))
+                .collect(Collectors.toList());
+    }
+
+    public List<Map<String, Object>> select(List<ItemDto> items, ObjectMapper objectMapper) {
+        return items.stream()
+                .map(item -> {
+                    Map<String, Object> json = objectMapper.convertValue(item, JSON_OBJECT);
+                    json.keySet().retainAll(fields);
+                    return json;
+                })
+                .collect(Collectors.toList());
+    }
+}
@@ -1,28 +1,83 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 
-
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+
+public interface ItemJpaRepository extends JpaRepository<Item, Long>, ItemProjectionRepository {
+    // items of a soft-deleted owner stay in the table until UserPurgeJob gets to them, every read hides them
+    String VISIBLE = "i.owner.deleted = false ";
+    String TEXT_FILTER = "where " + VISIBLE +
+            "and ((upper(i.name)) like upper(concat('%', :text, '%')) " +
+            "or upper(i.description) like upper(concat('%', :text, '%')) " +
+            "and i.available is true) ";
+
+    @Override
+    @EntityGraph(attributePaths = "owner")
+    @Query("select i from Item i where i.id = :id and " + VISIBLE)
+    Optional<Item> findById(@Param("id") Long id);
 
-public interface ItemJpaRepository extends JpaRepository<Item, Long> {
+    @Override
+    @Query("select case when count(i) > 0 then true else false end from Item i where i.id = :id and " + VISIBLE)
+    boolean existsById(@Param("id") Long id);
+
+    @EntityGraph(attributePaths = "owner")
+    @Query("select i from Item i where i.id in (:ids) and " + VISIBLE)
+    List<Item> findAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "owner")
     List<Item> findAllByOwnerId(Long ownerId, Pageable pageable);
 
-    @Query(value = "select i " +
-            "from Item i " +
-            "where (upper(i.name)) like upper(concat('%', :text, '%')) " +
-            "or upper(i.description) like upper(concat('%', :text, '%')) " +
-            "and i.available is true")
+    @EntityGraph(attributePaths = "owner")
+    @Query(value = "select i from Item i " + TEXT_FILTER)
     List<Item> findAllByText(@Param("text") String text, Pageable pageable);
 
-    List<Item> findAllByRequestId(long requestId);
+    /**
+     * Database fallback of {@link ItemNameIndex}, ordered like it by the name from the first matching word on.
+     * The pattern is the lower-cased prefix with like wildcards escaped, the word is the lower-cased prefix as is.
+     */
+    @Query("select new ru.practicum.shareit.item.dto.ItemSuggestionDto(i.id, i.name) " +
+            "from Item i " +
+            "where i.available = true and " + VISIBLE +
+            "and (lower(i.name) like concat(:pattern, '%') escape '\\' " +
+            "or lower(i.name) like concat('% ', :pattern, '%') escape '\\') " +
+            "order by case when locate(:word, lower(i.name)) = 1 then lower(i.name) " +
+            "else substring(lower(i.name), locate(concat(' ', :word), lower(i.name)) + 1) end, i.id"
+    )
+    List<ItemSuggestionDto> findSuggestions(@Param("pattern") String pattern,
+                                            @Param("word") String word,
+                                            Pageable pageable);
+
+    @EntityGraph(attributePaths = "owner")
+    @Query("select i from Item i where i.request.id = :requestId and " + VISIBLE)
+    List<Item> findAllByRequestId(@Param("requestId") long requestId);
 
+    @EntityGraph(attributePaths = "owner")
     @Query("select i " +
             "from Item i " +
-            "where i.request.id is not null "
+            "where i.request.id is not null and " + VISIBLE
     )
     List<Item> findAllWithRequestId();
+
+    @Transactional
+    @Modifying
+    // comments committed out of order must not move the last comment time back
+    @Query("update Item i " +
+            "set i.commentCount = i.commentCount + 1, " +
+            "i.lastCommentAt = case when i.lastCommentAt is null or i.lastCommentAt < :created " +
+            "then :created else i.lastCommentAt end, " +
+            "i.version = i.version + 1 " +
+            "where i.id = :id"
+    )
+    void incrementCommentStats(@Param("id") long id, @Param("created") LocalDateTime created);
 }
@@ -0,0 +1,236 @@
+package ru.practicum.shareit.item;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Names of available items sorted by every word start, for prefix suggestions without a database round trip.
+ * Keys are the lower-cased name from a word start on, followed by the item id to keep equal names apart.
+ * Words start at the beginning of the name and after a space, and an item is listed under the first word matching
+ * the prefix, the same way {@link ItemJpaRepository#findSuggestions} matches and orders.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ItemNameIndex {
+    private static final char ID_SEPARATOR = '\0';
+    private static final int ID_CHARS = 4;
+    private static final double RELOAD_BELOW = 0.9;
+
+    JdbcTemplate jdbcTemplate;
+    ItemAutocompleteProperties properties;
+    TaskExecutor taskExecutor;
+    ConcurrentSkipListMap<String, Long> keys = new ConcurrentSkipListMap<>();
+    Map<Long, String> names = new ConcurrentHashMap<>();
+    Set<Long> changedWhileLoading = ConcurrentHashMap.newKeySet();
+    Object writeLock = new Object();
+    State state = new State();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (writeLock) {
+            state.loading = true;
+            state.overflowed = false;
+        }
+
+        jdbcTemplate.query("select i.item_id, i.name from item i join users u on u.user_id = i.owner_id " +
+                "where i.available = true and u.deleted = false", rs -> {
+            long id = rs.getLong("item_id");
+            String name = rs.getString("name");
+            synchronized (writeLock) {
+                // a change committed during the load is newer than the row read here
+                if (!changedWhileLoading.contains(id)) {
+                    put(id, name);
+                }
+            }
+        });
+
+        synchronized (writeLock) {
+            state.loading = false;
+            changedWhileLoading.clear();
+            state.ready = !state.overflowed;
+        }
+        log.info("Item name index loaded with {} keys", keys.size());
+    }
+
+    /**
+     * Suggestions for the prefix, or empty while the index can't answer and the database has to.
+     */
+    public Optional<List<ItemSuggestionDto>> find(String prefix, int limit) {
+        if (!state.ready) {
+            return Optional.empty();
+        }
+
+        String from = normalize(prefix);
+        NavigableMap<String, Long> matches = keys.subMap(from, true, from + Character.MAX_VALUE, false);
+        List<ItemSuggestionDto> suggestions = new ArrayList<>(limit);
+        Set<Long> seen = new HashSet<>();
+        for (Map.Entry<String, Long> match : matches.entrySet()) {
+            Long id = match.getValue();
+            String name = names.get(id);
+            if (name != null && isFirstMatch(match.getKey(), name, from) && seen.add(id)) {
+                suggestions.add(new ItemSuggestionDto(id, name));
+                if (suggestions.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return Optional.of(suggestions);
+    }
+
+    public void update(Item item) {
+        update(item.getId(), item.getName(), Boolean.TRUE.equals(item.getAvailable()));
+    }
+
+    public void delete(long id) {
+        update(id, null, false);
+    }
+
+    private void update(long id, String name, boolean available) {
+        afterCommit(() -> {
+            synchronized (writeLock) {
+                if (state.loading) {
+                    changedWhileLoading.add(id);
+                }
+                boolean freed = remove(id);
+                boolean rejected = available && !put(id, name);
+                // a rejected put keeps the index full, so only a removal that really freed keys can warrant a reload
+                if (freed && !rejected) {
+                    reloadIfShrunk();
+                }
+            }
+        });
+    }
+
+    /**
+     * A full index stops taking items, so once deletes bring it well below the limit the skipped items are read
+     * again. Runs under the write lock.
+     */
+    private void reloadIfShrunk() {
+        if (state.overflowed && !state.loading && keys.size() < properties.getMaxEntries() * RELOAD_BELOW) {
+            log.info("Item name index is down to {} keys, reloading it", keys.size());
+            state.loading = true;
+            taskExecutor.execute(this::load);
+        }
+    }
+
+    /**
+     * Returns false if the index is full and the item was left out.
+     */
+    private boolean put(long id, String name) {
+        if (name.equals(names.get(id))) {
+            return true;
+        }
+
+        List<String> itemKeys = keysOf(id, name);
+        if (keys.size() + itemKeys.size() > properties.getMaxEntries()) {
+            if (!state.overflowed) {
+                log.warn("Item name index is full at {} keys, suggestions are read from the database",
+                        keys.size());
+            }
+            state.overflowed = true;
+            state.ready = false;
+            return false;
+        }
+
+        names.put(id, name);
+        itemKeys.forEach(key -> keys.put(key, id));
+        return true;
+    }
+
+    /**
+     * Returns whether the item had keys to free.
+     */
+    private boolean remove(long id) {
+        String name = names.remove(id);
+        if (name == null) {
+            return false;
+        }
+        keysOf(id, name).forEach(keys::remove);
+        return true;
+    }
+
+    private static List<String> keysOf(long id, String name) {
+        String lowerCased = name.toLowerCase(Locale.ROOT);
+        String idSuffix = idSuffix(id);
+        List<String> itemKeys = new ArrayList<>();
+        for (int i = 0; i < lowerCased.length(); i++) {
+            if (isWordStart(lowerCased, i)) {
+                itemKeys.add(lowerCased.substring(i) + idSuffix);
+            }
+        }
+        return itemKeys;
+    }
+
+    /**
+     * Fixed width, so that equal names are ordered by id as in the database.
+     */
+    private static String idSuffix(long id) {
+        char[] suffix = new char[ID_CHARS + 1];
+        suffix[0] = ID_SEPARATOR;
+        for (int i = 0; i < ID_CHARS; i++) {
+            suffix[ID_CHARS - i] = (char) (id >>> (Character.SIZE * i));
+        }
+        return new String(suffix);
+    }
+
+    private static boolean isFirstMatch(String key, String name, String prefix) {
+        String lowerCased = name.toLowerCase(Locale.ROOT);
+        int position = lowerCased.length() - (key.length() - ID_CHARS - 1);
+        for (int i = 0; i < position; i++) {
+            if (isWordStart(lowerCased, i) && lowerCased.startsWith(prefix, i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWordStart(String text, int i) {
+        return text.charAt(i) != ' ' && (i == 0 || text.charAt(i - 1) == ' ');
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static class State {
+        volatile boolean loading;
+        volatile boolean ready;
+        volatile boolean overflowed;
+    }
+}
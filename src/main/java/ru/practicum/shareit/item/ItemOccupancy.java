@@ -0,0 +1,40 @@
+package ru.practicum.shareit.item;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class ItemOccupancy {
+    public static final long MINUTES_PER_DAY = Duration.ofDays(1).toMinutes();
+
+    /**
+     * Minutes of the period from start to end that fall on each calendar day.
+     */
+    public static Map<LocalDate, Long> minutesByDay(LocalDateTime start, LocalDateTime end) {
+        Map<LocalDate, Long> minutes = new LinkedHashMap<>();
+        LocalDateTime from = start;
+        while (from.isBefore(end)) {
+            LocalDateTime nextDay = from.toLocalDate().plusDays(1).atStartOfDay();
+            LocalDateTime to = end.isBefore(nextDay) ? end : nextDay;
+            minutes.merge(from.toLocalDate(), Duration.between(from, to).toMinutes(), Long::sum);
+            from = to;
+        }
+        return minutes;
+    }
+
+    public static double percent(long bookedMinutes, long days) {
+        if (days <= 0) {
+            return 0;
+        }
+
+        long available = days * MINUTES_PER_DAY;
+        double percent = 100.0 * Math.min(bookedMinutes, available) / available;
+        return Math.round(percent * 100) / 100.0;
+    }
+}
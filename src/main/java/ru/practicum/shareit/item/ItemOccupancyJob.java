@@ -0,0 +1,117 @@
+package ru.practicum.shareit.item;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Booking;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps {@code item_daily_occupancy} in step with approved bookings: recomputes the days of each approval after
+ * it commits and rebuilds all aggregates nightly from the booking tables.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ItemOccupancyJob {
+    ItemOccupancyRepository repo;
+    ItemOccupancyProperties properties;
+    PlatformTransactionManager transactionManager;
+    TaskExecutor taskExecutor;
+
+    public void recordApproved(Booking booking) {
+        long itemId = booking.getItem().getId();
+        LocalDate from = booking.getStart().toLocalDate();
+        LocalDate to = booking.getEnd().toLocalDate();
+        Runnable record = () -> {
+            try {
+                // a rebuild may already have counted the committed booking, so its days are recomputed, not added to
+                newTransaction().executeWithoutResult(status -> {
+                    if (!repo.lockItems(List.of(itemId)).isEmpty()) {
+                        repo.rebuildDays(itemId, from, to);
+                    }
+                });
+            } catch (RuntimeException e) {
+                // the booking is already committed, the nightly rebuild repairs the aggregates
+                log.error("Failed to record occupancy of item {}", itemId, e);
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record.run();
+                }
+            });
+        } else {
+            record.run();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (properties.isEnabled() && repo.isEmpty()) {
+            taskExecutor.execute(this::rebuildAll);
+        }
+    }
+
+    @Scheduled(cron = "${shareit.item-occupancy.rebuild-cron:0 0 4 * * *}")
+    public void rebuild() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        log.info("Rebuilt occupancy of {} items", rebuildAll());
+    }
+
+    public int rebuildAll() {
+        int total = 0;
+        List<Long> itemIds = repo.findItemIds(0, properties.getBatchSize());
+        while (!itemIds.isEmpty()) {
+            rebuildBatch(itemIds);
+            total += itemIds.size();
+            itemIds = repo.findItemIds(itemIds.get(itemIds.size() - 1), properties.getBatchSize());
+        }
+        return total;
+    }
+
+    public void rebuild(Collection<Long> itemIds) {
+        List<Long> ids = new ArrayList<>(itemIds);
+        for (int from = 0; from < ids.size(); from += properties.getBatchSize()) {
+            rebuildBatch(ids.subList(from, Math.min(from + properties.getBatchSize(), ids.size())));
+        }
+    }
+
+    private void rebuildBatch(List<Long> itemIds) {
+        newTransaction().executeWithoutResult(status -> {
+            List<Long> existing = repo.lockItems(itemIds);
+            if (!existing.isEmpty()) {
+                repo.rebuild(existing);
+            }
+        });
+    }
+
+    // runs after the caller's commit too, where joining the finished transaction would never commit
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit.item-occupancy")
+public class ItemOccupancyProperties {
+    private boolean enabled = true;
+    /**
+     * Items whose daily aggregates are rebuilt in one transaction.
+     */
+    private int batchSize = 100;
+    /**
+     * Longest date range, in days, the utilization endpoints answer.
+     */
+    private int maxRangeDays = 731;
+}
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.item;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.DailyOccupancyDto;
+import ru.practicum.shareit.item.dto.ItemUtilizationDto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Daily occupancy aggregates of items, see {@code V4__item_daily_occupancy.sql}.
+ */
+@Repository
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ItemOccupancyRepository {
+    private static final String APPROVED_PERIODS = "select b.item_id, b.start_time, b.end_time from %s b " +
+            "where b.item_id in (:itemIds) and b.status = 'APPROVED' ";
+    private static final String OVERLAPPING = "and b.start_time < :until and b.end_time > :since";
+    private static final String INSERT = "insert into item_daily_occupancy " +
+            "(item_id, occupancy_date, booked_minutes, bookings_started) " +
+            "values (:itemId, :date, :minutes, :started)";
+
+    NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Locks the item rows, so aggregates of an item are changed by one transaction at a time.
+     */
+    public List<Long> lockItems(Collection<Long> itemIds) {
+        return jdbcTemplate.queryForList("select item_id from item where item_id in (:itemIds) for update",
+                new MapSqlParameterSource("itemIds", itemIds), Long.class);
+    }
+
+    /**
+     * Recomputes the aggregates of the items from their approved live and archived bookings.
+     */
+    public void rebuild(Collection<Long> itemIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource("itemIds", itemIds);
+        Map<Long, Map<LocalDate, long[]>> byItem = aggregate("", params);
+
+        jdbcTemplate.update("delete from item_daily_occupancy where item_id in (:itemIds)", params);
+        insert(byItem, date -> true);
+    }
+
+    /**
+     * Recomputes the aggregates of one item for the days from and to, both included. Unlike adding a booking to
+     * the stored minutes, this can run again or after a rebuild without counting the booking twice.
+     */
+    public void rebuildDays(long itemId, LocalDate from, LocalDate to) {
+        MapSqlParameterSource params = new MapSqlParameterSource("itemIds", List.of(itemId))
+                .addValue("since", from.atStartOfDay())
+                .addValue("until", to.plusDays(1).atStartOfDay())
+                .addValue("from", from)
+                .addValue("to", to);
+        Map<Long, Map<LocalDate, long[]>> byItem = aggregate(OVERLAPPING, params);
+
+        jdbcTemplate.update("delete from item_daily_occupancy " +
+                "where item_id in (:itemIds) and occupancy_date between :from and :to", params);
+        insert(byItem, date -> !date.isBefore(from) && !date.isAfter(to));
+    }
+
+    public List<Long> findItemIds(long afterId, int limit) {
+        return jdbcTemplate.queryForList(
+                "select item_id from item where item_id > :afterId order by item_id limit :limit",
+                new MapSqlParameterSource("afterId", afterId).addValue("limit", limit),
+                Long.class);
+    }
+
+    public boolean isEmpty() {
+        return jdbcTemplate.queryForList("select item_id from item_daily_occupancy limit 1",
+                new MapSqlParameterSource(), Long.class).isEmpty();
+    }
+
+    public List<DailyOccupancyDto> findDaily(long itemId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query("select occupancy_date, booked_minutes, bookings_started " +
+                        "from item_daily_occupancy " +
+                        "where item_id = :itemId and occupancy_date between :from and :to " +
+                        "order by occupancy_date",
+                new MapSqlParameterSource("itemId", itemId).addValue("from", from).addValue("to", to),
+                (rs, rowNum) -> new DailyOccupancyDto(
+                        rs.getDate("occupancy_date").toLocalDate(),
+                        rs.getLong("booked_minutes"),
+                        rs.getLong("bookings_started"),
+                        ItemOccupancy.percent(rs.getLong("booked_minutes"), 1)));
+    }
+
+    public List<ItemUtilizationDto> findTotalsByOwnerId(long ownerId, LocalDate from, LocalDate to, long days) {
+        return jdbcTemplate.query("select i.item_id, " +
+                        "coalesce(sum(o.booked_minutes), 0) as booked_minutes, " +
+                        "coalesce(sum(o.bookings_started), 0) as bookings " +
+                        "from item i " +
+                        "left join item_daily_occupancy o on o.item_id = i.item_id " +
+                        "and o.occupancy_date between :from and :to " +
+                        "where i.owner_id = :ownerId " +
+                        "group by i.item_id " +
+                        "order by i.item_id",
+                new MapSqlParameterSource("ownerId", ownerId).addValue("from", from).addValue("to", to),
+                (rs, rowNum) -> new ItemUtilizationDto(
+                        rs.getLong("item_id"),
+                        from,
+                        to,
+                        rs.getLong("booked_minutes"),
+                        rs.getLong("bookings"),
+                        ItemOccupancy.percent(rs.getLong("booked_minutes"), days)));
+    }
+
+    // minutes and bookings started per item and day, from the approved periods of both booking tables
+    private Map<Long, Map<LocalDate, long[]>> aggregate(String filter, MapSqlParameterSource params) {
+        Map<Long, Map<LocalDate, long[]>> byItem = new HashMap<>();
+        RowCallbackHandler aggregate = rs -> {
+            LocalDateTime start = rs.getTimestamp("start_time").toLocalDateTime();
+            LocalDateTime end = rs.getTimestamp("end_time").toLocalDateTime();
+            Map<LocalDate, long[]> days = byItem.computeIfAbsent(rs.getLong("item_id"), id -> new HashMap<>());
+            ItemOccupancy.minutesByDay(start, end).forEach((date, minutes) -> {
+                long[] day = days.computeIfAbsent(date, d -> new long[2]);
+                day[0] += minutes;
+                day[1] += date.equals(start.toLocalDate()) ? 1 : 0;
+            });
+        };
+        jdbcTemplate.query(String.format(APPROVED_PERIODS, "booking") + filter, params, aggregate);
+        jdbcTemplate.query(String.format(APPROVED_PERIODS, "booking_archive") + filter, params, aggregate);
+        return byItem;
+    }
+
+    private void insert(Map<Long, Map<LocalDate, long[]>> byItem, Predicate<LocalDate> dates) {
+        List<SqlParameterSource> rows = new ArrayList<>();
+        byItem.forEach((itemId, days) -> days.forEach((date, day) -> {
+            if (dates.test(date)) {
+                rows.add(new MapSqlParameterSource("itemId", itemId)
+                        .addValue("date", date)
+                        .addValue("minutes", day[0])
+                        .addValue("started", day[1]));
+            }
+        }));
+        jdbcTemplate.batchUpdate(INSERT, rows.toArray(new SqlParameterSource[0]));
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Reads only the item columns of a sparse fieldset. The returned items are detached and hold just those fields.
+ */
+public interface ItemProjectionRepository {
+    List<Item> findProjectionsByOwnerId(Long ownerId, ItemFields fields, Pageable pageable);
+
+    List<Item> findProjectionsByText(String text, ItemFields fields, Pageable pageable);
+}
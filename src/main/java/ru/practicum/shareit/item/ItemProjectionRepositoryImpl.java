@@ -0,0 +1,100 @@
+package ru.practicum.shareit.item;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.request.Request;
+import ru.practicum.shareit.user.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ItemProjectionRepositoryImpl implements ItemProjectionRepository {
+    private static final Map<String, String> PATHS = Map.of(
+            "id", "i.id",
+            "name", "i.name",
+            "description", "i.description",
+            "available", "i.available",
+            ItemFields.OWNER, "o",
+            ItemFields.REQUEST_ID, "r.id",
+            "commentCount", "i.commentCount",
+            "lastCommentAt", "i.lastCommentAt"
+    );
+
+    EntityManager entityManager;
+
+    @Override
+    public List<Item> findProjectionsByOwnerId(Long ownerId, ItemFields fields, Pageable pageable) {
+        return find(fields, "where i.owner.id = :ownerId ", Map.of("ownerId", ownerId), pageable);
+    }
+
+    @Override
+    public List<Item> findProjectionsByText(String text, ItemFields fields, Pageable pageable) {
+        return find(fields, ItemJpaRepository.TEXT_FILTER, Map.of("text", text), pageable);
+    }
+
+    private List<Item> find(ItemFields fields, String where, Map<String, Object> parameters, Pageable pageable) {
+        List<String> columns = fields.columns();
+        String select = columns.stream()
+                .map(column -> PATHS.get(column) + " as " + column)
+                .collect(Collectors.joining(", "));
+        String joins = (columns.contains(ItemFields.OWNER) ? "join i.owner o " : "")
+                + (columns.contains(ItemFields.REQUEST_ID) ? "left join i.request r " : "");
+
+        TypedQuery<Tuple> query = entityManager.createQuery(
+                "select " + select + " from Item i " + joins + where + "order by i.id", Tuple.class);
+        parameters.forEach(query::setParameter);
+        if (pageable != null && pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        return query.getResultStream()
+                .map(tuple -> toItem(tuple, columns))
+                .collect(Collectors.toList());
+    }
+
+    private Item toItem(Tuple tuple, List<String> columns) {
+        Item item = new Item();
+        for (String column : columns) {
+            Object value = tuple.get(column);
+            switch (column) {
+                case "id":
+                    item.setId((Long) value);
+                    break;
+                case "name":
+                    item.setName((String) value);
+                    break;
+                case "description":
+                    item.setDescription((String) value);
+                    break;
+                case "available":
+                    item.setAvailable((Boolean) value);
+                    break;
+                case ItemFields.OWNER:
+                    item.setOwner((User) value);
+                    break;
+                case ItemFields.REQUEST_ID:
+                    item.setRequest(value == null ? null : Request.builder().id((Long) value).build());
+                    break;
+                case "commentCount":
+                    item.setCommentCount((Long) value);
+                    break;
+                case "lastCommentAt":
+                    item.setLastCommentAt((LocalDateTime) value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown item column " + column);
+            }
+        }
+        return item;
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+@Value
+public class DailyOccupancyDto {
+    LocalDate date;
+    long bookedMinutes;
+    long bookingsStarted;
+    double occupancy;
+}
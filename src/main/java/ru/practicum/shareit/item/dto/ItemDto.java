@@ -6,6 +6,7 @@ import ru.practicum.shareit.booking.dto.ShortBookingDto;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.user.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Getter
@@ -32,4 +33,8 @@ public class ItemDto {
     List<CommentDto> comments;
 
     Long requestId;
+
+    Long commentCount;
+
+    LocalDateTime lastCommentAt;
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Value;
+
+@Value
+public class ItemSuggestionDto {
+    Long id;
+    String name;
+}
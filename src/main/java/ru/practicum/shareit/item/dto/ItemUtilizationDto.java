@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Approved booking time of an item over a date range; occupancy is the booked share of the range in percent.
+ */
+@Value
+public class ItemUtilizationDto {
+    long itemId;
+    LocalDate from;
+    LocalDate to;
+    long bookedMinutes;
+    long bookings;
+    double occupancy;
+}
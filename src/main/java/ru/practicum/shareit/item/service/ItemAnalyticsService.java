@@ -0,0 +1,75 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.core.exception.FieldValidationException;
+import ru.practicum.shareit.core.exception.NotFoundException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemJpaRepository;
+import ru.practicum.shareit.item.ItemOccupancy;
+import ru.practicum.shareit.item.ItemOccupancyProperties;
+import ru.practicum.shareit.item.ItemOccupancyRepository;
+import ru.practicum.shareit.item.dto.DailyOccupancyDto;
+import ru.practicum.shareit.item.dto.ItemUtilizationDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ItemAnalyticsService {
+    ItemOccupancyRepository occupancyRepo;
+    ItemJpaRepository itemRepo;
+    UserService userService;
+    ItemOccupancyProperties properties;
+
+    @Transactional(readOnly = true)
+    public List<ItemUtilizationDto> getUtilizationByOwner(long ownerId, LocalDate from, LocalDate to) {
+        long days = countDays(from, to);
+        userService.getById(ownerId);
+
+        return occupancyRepo.findTotalsByOwnerId(ownerId, from, to, days);
+    }
+
+    @Transactional(readOnly = true)
+    public List<DailyOccupancyDto> getDailyOccupancy(long itemId, long ownerId, LocalDate from, LocalDate to) {
+        long days = countDays(from, to);
+        Item item = itemRepo.findById(itemId).orElseThrow(() -> new NotFoundException("item", itemId));
+        if (!Objects.equals(item.getOwner().getId(), ownerId)) {
+            throw new NotFoundException("item", itemId);
+        }
+
+        Map<LocalDate, DailyOccupancyDto> byDate = occupancyRepo.findDaily(itemId, from, to)
+                .stream()
+                .collect(Collectors.toMap(DailyOccupancyDto::getDate, Function.identity()));
+
+        return Stream.iterate(from, date -> date.plusDays(1))
+                .limit(days)
+                .map(date -> byDate.getOrDefault(date, new DailyOccupancyDto(date, 0, 0, 0)))
+                .collect(Collectors.toList());
+    }
+
+    private long countDays(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new FieldValidationException("from | to", "Range end is before its start");
+        }
+
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > properties.getMaxRangeDays()) {
+            throw new FieldValidationException("from | to",
+                    "Range is longer than " + properties.getMaxRangeDays() + " days");
+        }
+        return days;
+    }
+}
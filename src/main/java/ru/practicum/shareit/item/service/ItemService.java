@@ -3,27 +3,36 @@ package ru.practicum.shareit.item.service;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingJpaRepository;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingTimeline;
 import ru.practicum.shareit.comment.Comment;
 import ru.practicum.shareit.comment.CommentJpaRepository;
 import ru.practicum.shareit.comment.CommentMapper;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.dto.CreateCommentDto;
+import ru.practicum.shareit.core.etag.EntityVersions;
 import ru.practicum.shareit.core.exception.NotFoundException;
+import ru.practicum.shareit.core.pagination.MultiGet;
 import ru.practicum.shareit.item.ItemJpaRepository;
 import ru.practicum.shareit.item.dto.CreateItemDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.dto.UpdateItemDto;
+import ru.practicum.shareit.request.Request;
 import ru.practicum.shareit.request.RequestJpaRepository;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.core.exception.FieldValidationException;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemFields;
 import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemNameIndex;
 import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
@@ -34,6 +43,7 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class ItemService {
+    private static final int COMMENTS_PREVIEW_SIZE = 10;
 
     ItemJpaRepository repo;
     BookingJpaRepository bookingRepo;
@@ -44,58 +54,110 @@ public class ItemService {
     CommentJpaRepository commentRepo;
 
     RequestJpaRepository requestRepo;
+    EntityVersions entityVersions;
+    ItemNameIndex nameIndex;
 
+    @Transactional(readOnly = true)
     public List<ItemDto> getByUserId(Long userId, Pageable pageable) {
+        return getByUserId(userId, pageable, ItemFields.ALL);
+    }
 
-        Map<Long, List<Comment>> commentsByItem = commentRepo
-                .findAllByItem_Owner_Id(userId)
-                .stream()
-                .collect(Collectors.groupingBy(
-                        comment -> comment.getItem().getId()));
+    @Transactional(readOnly = true)
+    public List<ItemDto> getByUserId(Long userId, Pageable pageable, ItemFields fields) {
+        List<Item> items = fields.isAll()
+                ? repo.findAllByOwnerId(userId, pageable)
+                : repo.findProjectionsByOwnerId(userId, fields, pageable);
+
+        if (fields.includes(ItemFields.COMMENTS)) {
+            setComments(items);
+        }
+
+        if (fields.includesBookings()) {
+            setBookings(items, userId, pageable);
+        }
+
+        return items.stream()
+                .map(mapper::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    private void setBookings(List<Item> items, Long userId, Pageable pageable) {
+        setBookings(items, bookingRepo.findAllByItemOwnerIdOrderByStartDesc(userId, pageable));
+    }
 
-        Map<Long, List<Booking>> bookingsByItem = bookingRepo
-                .findAllByItemOwnerIdOrderByStartDesc(userId, pageable)
+    private void setBookings(List<Item> items, List<Booking> bookings) {
+        Map<Long, List<Booking>> bookingsByItem = bookings
                 .stream()
                 .collect(Collectors.groupingBy(
                         booking -> booking.getItem().getId()));
 
-        return repo.findAllByOwnerId(userId, pageable).stream()
-                .peek(item -> {
-                    List<Booking> bookings = bookingsByItem.getOrDefault(item.getId(), Collections.emptyList());
-                    item.setNextBooking(bookingMapper.toShortBookingDto(getNextBooking(bookings)));
-                    item.setLastBooking(bookingMapper.toShortBookingDto(getLastBooking(bookings)));
-                })
-                .peek(item -> item.setComments(commentsByItem.getOrDefault(item.getId(), Collections.emptyList())
-                        .stream()
-                        .map(commentMapper::toCommentDto)
-                        .collect(Collectors.toList())))
-                .map(mapper::toItemDto)
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> withoutLastBooking = items.stream()
+                .map(Item::getId)
+                .filter(id -> BookingTimeline.findLast(
+                        bookingsByItem.getOrDefault(id, Collections.emptyList()), now) == null)
                 .collect(Collectors.toList());
+        Map<Long, Booking> archivedLastByItem = getLatestArchivedBookings(withoutLastBooking);
+
+        items.forEach(item -> {
+            List<Booking> itemBookings = bookingsByItem.getOrDefault(item.getId(), Collections.emptyList());
+            Booking last = Optional.ofNullable(BookingTimeline.findLast(itemBookings, now))
+                    .orElse(archivedLastByItem.get(item.getId()));
+            item.setNextBooking(bookingMapper.toShortBookingDto(BookingTimeline.findNext(itemBookings, now)));
+            item.setLastBooking(bookingMapper.toShortBookingDto(last));
+        });
     }
 
+    @Transactional(readOnly = true)
     public List<ItemDto> searchByText(String text, Pageable pageable) {
+        return searchByText(text, pageable, ItemFields.ALL);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ItemDto> searchByText(String text, Pageable pageable, ItemFields fields) {
         if (text.isBlank()) {
             return Collections.emptyList();
         }
 
-        return repo.findAllByText(text, pageable)
-                .stream()
+        List<Item> items = fields.isAll()
+                ? repo.findAllByText(text, pageable)
+                : repo.findProjectionsByText(text, fields, pageable);
+
+        return items.stream()
                 .map(mapper::toItemDto)
                 .collect(Collectors.toList());
     }
 
+    // no transaction: the index answers from memory and the fallback is a single query
+    public List<ItemSuggestionDto> autocomplete(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return Collections.emptyList();
+        }
+
+        String word = prefix.trim().toLowerCase(Locale.ROOT);
+        return nameIndex.find(prefix, limit)
+                .orElseGet(() -> repo.findSuggestions(escapeLike(word), word, PageRequest.of(0, limit)));
+    }
+
+    @Transactional(readOnly = true)
     public ItemDto getById(long id, Long userId) {
 
         Item item = repo.findById(id).orElseThrow(() -> new NotFoundException("item", id));
 
         if (Objects.equals(item.getOwner().getId(), userId)) {
             List<Booking> bookings = bookingRepo.findAllByItemIdOrderByStartAsc(id);
-
-            item.setNextBooking(bookingMapper.toShortBookingDto(getNextBooking(bookings)));
-            item.setLastBooking(bookingMapper.toShortBookingDto(getLastBooking(bookings)));
+            LocalDateTime now = LocalDateTime.now();
+            Booking last = BookingTimeline.findLast(bookings, now);
+            if (last == null) {
+                last = getLatestArchivedBookings(List.of(id)).get(id);
+            }
+
+            item.setNextBooking(bookingMapper.toShortBookingDto(BookingTimeline.findNext(bookings, now)));
+            item.setLastBooking(bookingMapper.toShortBookingDto(last));
         }
 
-        List<CommentDto> comments = commentRepo.findAllByItemId(item.getId())
+        List<CommentDto> comments = commentRepo
+                .findAllByItemIdOrderByIdDesc(item.getId(), PageRequest.of(0, COMMENTS_PREVIEW_SIZE))
                 .stream()
                 .map(commentMapper::toCommentDto)
                 .collect(Collectors.toList());
@@ -104,6 +166,49 @@ public class ItemService {
         return mapper.toItemDto(item);
     }
 
+    @Transactional(readOnly = true)
+    public List<ItemDto> getAllById(List<Long> ids, Long userId) {
+        List<Long> distinctIds = MultiGet.distinctIds(ids);
+        if (distinctIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Item> items = repo.findAllByIdIn(distinctIds);
+
+        List<Item> owned = items.stream()
+                .filter(item -> Objects.equals(item.getOwner().getId(), userId))
+                .collect(Collectors.toList());
+        if (!owned.isEmpty()) {
+            setBookings(owned, bookingRepo.findAllByItemIdIn(owned.stream()
+                    .map(Item::getId)
+                    .collect(Collectors.toList())));
+        }
+
+        setComments(items);
+
+        return MultiGet.inRequestOrder(distinctIds, items, Item::getId)
+                .stream()
+                .map(mapper::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<CommentDto> getComments(long id, Long cursor, int size) {
+        if (!repo.existsById(id)) {
+            throw new NotFoundException("item", id);
+        }
+
+        Pageable pageable = PageRequest.of(0, size);
+        List<Comment> comments = cursor == null
+                ? commentRepo.findAllByItemIdOrderByIdDesc(id, pageable)
+                : commentRepo.findAllByItemIdAndIdLessThanOrderByIdDesc(id, cursor, pageable);
+
+        return comments.stream()
+                .map(commentMapper::toCommentDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
     public ItemDto create(Long userId, CreateItemDto dto) {
 
         User user = userService.getById(userId);
@@ -115,9 +220,18 @@ public class ItemService {
                 throw new NotFoundException("request", dto.getRequestId());
             });
         }
-        return mapper.toItemDto(repo.save(newItem));
+
+        Item saved = repo.save(newItem);
+        nameIndex.update(saved);
+        ItemDto created = mapper.toItemDto(saved);
+        if (dto.getRequestId() != null) {
+            requestRepo.incrementVersion(dto.getRequestId());
+            entityVersions.evict(Request.class, dto.getRequestId());
+        }
+        return created;
     }
 
+    @Transactional
     public ItemDto update(long id, Long userId, UpdateItemDto dto) {
         User user = userService.getById(userId);
         Item item = repo.findById(id).orElseThrow(() -> new NotFoundException("item", id));
@@ -138,46 +252,79 @@ public class ItemService {
             item.setAvailable(dto.getAvailable());
         }
 
-        return mapper.toItemDto(repo.save(item));
+        Item saved = repo.save(item);
+        if (dto.getName() != null || dto.getAvailable() != null) {
+            nameIndex.update(saved);
+        }
+        return mapper.toItemDto(saved);
     }
 
+    @Transactional
     public ItemDto delete(long id) {
         Item item = repo.findById(id).orElseThrow(() -> new NotFoundException("item", id));
+        bookingRepo.deleteArchivedByItemId(id);
         repo.deleteById(id);
-        return mapper.toItemDto(repo.save(item));
+        nameIndex.delete(id);
+        return mapper.toItemDto(item);
     }
 
-    private Booking getNextBooking(List<Booking> bookings) {
-        List<Booking> filteredBookings = bookings.stream()
-                .filter(booking -> booking.getStart().isAfter(LocalDateTime.now()) && !booking.getStatus().equals(BookingStatus.REJECTED))
-                .sorted(Comparator.comparing(Booking::getStart))
-                .collect(Collectors.toList());
-
-        return filteredBookings.isEmpty() ? null : filteredBookings.get(0);
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
     }
 
-    public List<Booking> getAllBookings(long id) {
-        return bookingRepo.findAllByItemIdOrderByStartAsc(id);
+    private void setComments(List<Item> items) {
+        Map<Long, List<Comment>> commentsByItem = getLatestComments(items);
+        items.forEach(item -> item.setComments(commentsByItem.getOrDefault(item.getId(), Collections.emptyList())
+                .stream()
+                .map(commentMapper::toCommentDto)
+                .collect(Collectors.toList())));
     }
 
-    private Booking getLastBooking(List<Booking> bookings) {
-        List<Booking> filteredBookings = bookings.stream()
-                .filter(booking -> booking.getEnd().isBefore(LocalDateTime.now()) ||
-                        (booking.getStart().isBefore(LocalDateTime.now()) &&
-                                booking.getEnd().isAfter(LocalDateTime.now())))
-                .sorted(Comparator.comparing(Booking::getStart))
+    private Map<Long, List<Comment>> getLatestComments(List<Item> items) {
+        if (items.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
                 .collect(Collectors.toList());
 
-        return filteredBookings.isEmpty() ? null : filteredBookings.get(filteredBookings.size() - 1);
+        return commentRepo.findLatestByItemIds(itemIds, COMMENTS_PREVIEW_SIZE)
+                .stream()
+                .collect(Collectors.groupingBy(
+                        comment -> comment.getItem().getId()));
+    }
+
+    // bookings that ended long ago only live in the archive, the live table is checked first
+    private Map<Long, Booking> getLatestArchivedBookings(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        return bookingRepo.findLatestArchivedByItemIds(itemIds)
+                .stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), booking -> booking));
     }
 
+    @Transactional(readOnly = true)
+    public List<Booking> getAllBookings(long id) {
+        return bookingRepo.findAllByItemIdOrderByStartAsc(id);
+    }
+
+    @Transactional
     public CommentDto comment(long id, long userId, CreateCommentDto commentDto) {
         Item item = repo.findById(id).orElseThrow(() -> new NotFoundException("item", id));
         User user = userService.getById(userId);
 
-        List<Booking> bookings = bookingRepo.findAllByBookerIdAndEndBeforeOrderByStartDesc(userId, LocalDateTime.now(), Pageable.unpaged());
+        LocalDateTime now = LocalDateTime.now();
+        boolean hasFinishedBooking = bookingRepo.existsByBookerIdAndItemIdAndStatusAndEndBefore(
+                userId, id, BookingStatus.APPROVED, now)
+                || bookingRepo.existsArchivedByBookerIdAndItemIdAndStatusAndEndBefore(
+                userId, id, BookingStatus.APPROVED.name(), now);
 
-        if (bookings.isEmpty()) {
+        if (!hasFinishedBooking) {
             throw new FieldValidationException("userId", "User didn't book this item");
         }
 
@@ -186,6 +333,10 @@ public class ItemService {
         comment.setAuthor(user);
         comment.setCreated(LocalDateTime.now());
 
-        return commentMapper.toCommentDto(commentRepo.save(comment));
+        comment = commentRepo.save(comment);
+        repo.incrementCommentStats(id, comment.getCreated());
+        entityVersions.evict(Item.class, id);
+
+        return commentMapper.toCommentDto(comment);
     }
 }
@@ -1,5 +1,7 @@
 package ru.practicum.shareit.request;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -12,11 +14,17 @@ import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.shareit.request.dto.CreateRequestDto;
 import ru.practicum.shareit.request.dto.RequestDto;
 import ru.practicum.shareit.request.service.RequestService;
+import ru.practicum.shareit.core.etag.ConditionalGetCache;
+import ru.practicum.shareit.core.etag.EntityVersions;
 import ru.practicum.shareit.core.pagination.PaginationMapper;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
 
 import javax.validation.Valid;
 import javax.validation.constraints.PositiveOrZero;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @Validated
@@ -25,6 +33,7 @@ import java.util.List;
 public class RequestController {
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
     private final RequestService requestService;
+    private final ConditionalGetCache conditionalGetCache;
 
     @PostMapping
     public RequestDto createRequest(
@@ -49,7 +58,27 @@ public class RequestController {
     }
 
     @GetMapping("/{requestId}")
-    public RequestDto getById(@PathVariable long requestId, @RequestHeader(name = USER_ID_HEADER) long userId) {
-        return requestService.getById(requestId, userId);
+    public ResponseEntity<RequestDto> getById(
+            @PathVariable long requestId,
+            @RequestHeader(name = USER_ID_HEADER) long userId,
+            @RequestHeader(required = false, name = HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        String resource = "request:" + requestId;
+        Optional<ResponseEntity<RequestDto>> notModified = conditionalGetCache
+                .checkNotModified(resource, userId, ifNoneMatch);
+        if (notModified.isPresent()) {
+            return notModified.get();
+        }
+
+        RequestDto request = requestService.getById(requestId, userId);
+        List<String> components = new ArrayList<>();
+        components.add(EntityVersions.key(Request.class, requestId));
+        request.getItems().forEach(item -> {
+            components.add(EntityVersions.key(Item.class, item.getId()));
+            if (item.getOwner() != null) {
+                components.add(EntityVersions.key(User.class, item.getOwner().getId()));
+            }
+        });
+
+        return conditionalGetCache.respond(resource, components, viewerId -> true, userId, ifNoneMatch, request);
     }
 }
@@ -2,6 +2,10 @@ package ru.practicum.shareit.request;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -9,5 +13,13 @@ public interface RequestJpaRepository extends JpaRepository<Request, Long> {
     List<Request> findAllByUserIdOrderByCreatedDesc(long userId);
 
     List<Request> findAllByUserIdIsNotOrderByCreatedDesc(long userId, Pageable pageable);
+
+    /**
+     * Bumps the version of a request whose answer items changed, so cached ETags over its items stop matching.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Request r set r.version = r.version + 1 where r.id = :id")
+    void incrementVersion(@Param("id") long id);
 }
 
@@ -3,6 +3,7 @@ package ru.practicum.shareit.request.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.core.exception.NotFoundException;
 import ru.practicum.shareit.request.Request;
 import ru.practicum.shareit.request.RequestJpaRepository;
@@ -30,6 +31,7 @@ public class RequestService {
     private final ItemMapper itemMapper;
     private final UserService userService;
 
+    @Transactional
     public RequestDto createRequest(CreateRequestDto dto, long userId) {
         User user = userService.getById(userId);
 
@@ -41,6 +43,7 @@ public class RequestService {
         return mapper.toRequestDto(request);
     }
 
+    @Transactional(readOnly = true)
     public List<RequestDto> getOwnRequests(long userId) {
         userService.getById(userId);
 
@@ -55,6 +58,7 @@ public class RequestService {
 
     }
 
+    @Transactional(readOnly = true)
     public List<RequestDto> getOtherRequests(long userId, Pageable pageable) {
         userService.getById(userId);
 
@@ -68,6 +72,7 @@ public class RequestService {
         return requestsList;
     }
 
+    @Transactional(readOnly = true)
     public RequestDto getById(long requestId, long userId) {
         userService.getById(userId);
 
@@ -1,5 +1,7 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
@@ -17,6 +19,7 @@ import javax.validation.constraints.PositiveOrZero;
 @NoArgsConstructor
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class User {
     @Id
     @Column(name = "user_id")
@@ -29,4 +32,11 @@ public class User {
 
     @Column(unique = true)
     String email;
+
+    @JsonIgnore
+    boolean deleted;
+
+    @Version
+    @JsonIgnore
+    long version;
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -12,14 +14,23 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.user.dto.BulkCreateUserDto;
+import ru.practicum.shareit.user.dto.BulkUserResultDto;
 import ru.practicum.shareit.user.dto.CreateUserDto;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
+import ru.practicum.shareit.user.dto.UserDeletionDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -28,11 +39,38 @@ import java.util.List;
 @RequestMapping("/users")
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class UserController {
+    private static final String NDJSON = "application/x-ndjson";
     UserService userService;
+    ObjectMapper objectMapper;
 
     @GetMapping
-    public List<User> getAll() {
-        return userService.findAll();
+    public List<User> getAll(
+            @PositiveOrZero @RequestParam(defaultValue = "0") long afterId,
+            @Positive @Max(1000) @RequestParam(defaultValue = "100") int size
+    ) {
+        return userService.findAll(afterId, size);
+    }
+
+    @GetMapping(params = "ids")
+    public List<User> getAllById(@RequestParam List<Long> ids) {
+        return userService.getAllById(ids);
+    }
+
+    @GetMapping("/export")
+    public void export(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+
+        try (SequenceWriter writer = objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .writeValues(response.getOutputStream())) {
+            userService.exportAll(user -> {
+                try {
+                    writer.write(user);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
     }
 
     @GetMapping("/{id}")
@@ -40,12 +78,22 @@ public class UserController {
         return userService.getById(id);
     }
 
+    @GetMapping("/{id}/deletion")
+    public UserDeletionDto getDeletionProgress(@PathVariable long id) {
+        return userService.getDeletionProgress(id);
+    }
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public User create(@Valid @RequestBody CreateUserDto dto) {
         return userService.create(dto);
     }
 
+    @PostMapping("/bulk")
+    public List<BulkUserResultDto> createAll(@Valid @RequestBody BulkCreateUserDto dto) {
+        return userService.createAll(dto.getUsers());
+    }
+
     @PatchMapping("/{id}")
     public User update(@PathVariable long id, @Valid @RequestBody UpdateUserDto dto) {
         return userService.update(id, dto);
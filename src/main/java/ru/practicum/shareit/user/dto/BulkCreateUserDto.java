@@ -0,0 +1,18 @@
+package ru.practicum.shareit.user.dto;
+
+import lombok.*;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Getter
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCreateUserDto {
+    @NotEmpty(message = "Users are required")
+    @Size(max = 1000, message = "No more than 1000 users per request")
+    List<@Valid CreateUserDto> users;
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.user.dto;
+
+import lombok.*;
+import ru.practicum.shareit.user.User;
+
+@Getter
+@EqualsAndHashCode
+@ToString
+@Builder
+public class BulkUserResultDto {
+    private int row;
+
+    private int status;
+
+    private User user;
+
+    private String error;
+}
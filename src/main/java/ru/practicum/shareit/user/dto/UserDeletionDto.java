@@ -0,0 +1,18 @@
+package ru.practicum.shareit.user.dto;
+
+import lombok.*;
+import ru.practicum.shareit.user.UserDeletionStatus;
+
+import java.util.Map;
+
+@Getter
+@EqualsAndHashCode
+@ToString
+@Builder
+public class UserDeletionDto {
+    private long userId;
+
+    private UserDeletionStatus status;
+
+    private Map<String, Long> deletedRows;
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.user.service;
+
+import ru.practicum.shareit.user.UserDeletionStatus;
+import ru.practicum.shareit.user.dto.UserDeletionDto;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class UserDeletionProgress {
+    private final Map<String, Long> deletedRows = Collections.synchronizedMap(new LinkedHashMap<>());
+    private volatile UserDeletionStatus status = UserDeletionStatus.IN_PROGRESS;
+
+    void add(String step, int rows) {
+        deletedRows.merge(step, (long) rows, Long::sum);
+    }
+
+    void complete() {
+        status = UserDeletionStatus.COMPLETED;
+    }
+
+    void fail() {
+        status = UserDeletionStatus.FAILED;
+    }
+
+    boolean isFinished() {
+        return status != UserDeletionStatus.IN_PROGRESS;
+    }
+
+    UserDeletionDto toDto(long userId) {
+        Map<String, Long> rows;
+        synchronized (deletedRows) {
+            rows = new LinkedHashMap<>(deletedRows);
+        }
+
+        return UserDeletionDto.builder()
+                .userId(userId)
+                .status(status)
+                .deletedRows(rows)
+                .build();
+    }
+}
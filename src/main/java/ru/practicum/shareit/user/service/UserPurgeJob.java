@@ -0,0 +1,194 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.core.etag.EntityVersions;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemNameIndex;
+import ru.practicum.shareit.item.ItemOccupancyJob;
+import ru.practicum.shareit.request.Request;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserJpaRepository;
+import ru.practicum.shareit.user.dto.UserDeletionDto;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserPurgeJob {
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_TRACKED_DELETIONS = 1000;
+    private static final String AUTHORED_COMMENTS = "select comment_id from comment where author_id = ? " +
+            "order by comment_id limit ?";
+    private static final List<Map.Entry<String, String>> PURGE_STEPS = List.of(
+            Map.entry("itemComments", "delete from comment where comment_id in " +
+                    "(select c.comment_id from comment c join item i on c.item_id = i.item_id " +
+                    "where i.owner_id = ? limit ?)"),
+            Map.entry("bookings", "delete from booking where booking_id in " +
+                    "(select booking_id from booking where booker_id = ? limit ?)"),
+            Map.entry("itemBookings", "delete from booking where booking_id in " +
+                    "(select b.booking_id from booking b join item i on b.item_id = i.item_id " +
+                    "where i.owner_id = ? limit ?)"),
+            Map.entry("archivedBookings", "delete from booking_archive where booking_id in " +
+                    "(select booking_id from booking_archive where booker_id = ? limit ?)"),
+            Map.entry("itemArchivedBookings", "delete from booking_archive where booking_id in " +
+                    "(select b.booking_id from booking_archive b join item i on b.item_id = i.item_id " +
+                    "where i.owner_id = ? limit ?)"),
+            Map.entry("requestLinks", "update item set request_id = null, version = version + 1 where item_id in " +
+                    "(select i.item_id from item i join request r on i.request_id = r.request_id " +
+                    "where r.user_id = ? limit ?)"),
+            Map.entry("items", "delete from item where item_id in " +
+                    "(select item_id from item where owner_id = ? limit ?)"),
+            Map.entry("requests", "delete from request where request_id in " +
+                    "(select request_id from request where user_id = ? limit ?)")
+    );
+
+    TaskExecutor taskExecutor;
+    JdbcTemplate jdbcTemplate;
+    PlatformTransactionManager transactionManager;
+    UserJpaRepository repo;
+    EntityVersions entityVersions;
+    ItemOccupancyJob occupancyJob;
+    ItemNameIndex nameIndex;
+    Map<Long, UserDeletionProgress> deletions = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingDeletions() {
+        repo.findAllByDeletedTrue()
+                .stream()
+                .map(User::getId)
+                .forEach(this::submit);
+    }
+
+    public void schedule(long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(userId);
+                }
+            });
+        } else {
+            submit(userId);
+        }
+    }
+
+    public Optional<UserDeletionDto> getProgress(long userId) {
+        return Optional.ofNullable(deletions.get(userId)).map(progress -> progress.toDto(userId));
+    }
+
+    private void submit(long userId) {
+        UserDeletionProgress current = deletions.get(userId);
+        if (current != null && !current.isFinished()) {
+            return;
+        }
+
+        evictFinishedDeletions();
+
+        UserDeletionProgress progress = new UserDeletionProgress();
+        deletions.put(userId, progress);
+        taskExecutor.execute(() -> purge(userId, progress));
+    }
+
+    private void purge(long userId, UserDeletionProgress progress) {
+        try {
+            List<Long> ownedItemIds = jdbcTemplate.queryForList(
+                    "select item_id from item where owner_id = ?", Long.class, userId);
+            List<Long> bookedItemIds = jdbcTemplate.queryForList(
+                    "select item_id from booking where booker_id = ? and status = 'APPROVED' " +
+                            "union select item_id from booking_archive where booker_id = ? and status = 'APPROVED'",
+                    Long.class, userId, userId);
+            List<Long> bookingIds = jdbcTemplate.queryForList(
+                    "select booking_id from booking where booker_id = ? or item_id in " +
+                            "(select item_id from item where owner_id = ?) " +
+                            "union select booking_id from booking_archive where booker_id = ? or item_id in " +
+                            "(select item_id from item where owner_id = ?)",
+                    Long.class, userId, userId, userId, userId);
+            List<Long> requestIds = jdbcTemplate.queryForList(
+                    "select request_id from request where user_id = ?", Long.class, userId);
+            // items answering the user's requests lose the link, items the user commented on get new stats
+            Set<Long> changedItemIds = new HashSet<>(jdbcTemplate.queryForList(
+                    "select i.item_id from item i join request r on i.request_id = r.request_id where r.user_id = ?",
+                    Long.class, userId));
+            ownedItemIds.forEach(nameIndex::delete);
+
+            int comments;
+            do {
+                comments = purgeCommentsChunk(userId, changedItemIds);
+                progress.add("comments", comments);
+            } while (comments > 0);
+
+            for (Map.Entry<String, String> step : PURGE_STEPS) {
+                int rows;
+                do {
+                    rows = jdbcTemplate.update(step.getValue(), userId, CHUNK_SIZE);
+                    progress.add(step.getKey(), rows);
+                } while (rows > 0);
+            }
+
+            occupancyJob.rebuild(bookedItemIds);
+
+            jdbcTemplate.update("delete from users where user_id = ?", userId);
+            // the rows were changed past Hibernate, so only their recorded versions are dropped
+            entityVersions.evict(User.class, userId);
+            ownedItemIds.forEach(id -> entityVersions.evict(Item.class, id));
+            changedItemIds.forEach(id -> entityVersions.evict(Item.class, id));
+            bookingIds.forEach(id -> entityVersions.evict(Booking.class, id));
+            requestIds.forEach(id -> entityVersions.evict(Request.class, id));
+            progress.complete();
+            log.info("User {} purged", userId);
+        } catch (RuntimeException e) {
+            progress.fail();
+            log.error("Failed to purge user {}", userId, e);
+        }
+    }
+
+    // the stats of the commented items are refreshed in the same transaction, so a restart can't skip them
+    private int purgeCommentsChunk(long userId, Set<Long> commentedItemIds) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return transaction.execute(status -> {
+            List<Long> itemIds = jdbcTemplate.queryForList("select distinct item_id from comment where comment_id in " +
+                    "(" + AUTHORED_COMMENTS + ")", Long.class, userId, CHUNK_SIZE);
+            int rows = jdbcTemplate.update("delete from comment where comment_id in " +
+                    "(" + AUTHORED_COMMENTS + ")", userId, CHUNK_SIZE);
+            itemIds.forEach(this::refreshCommentStats);
+            commentedItemIds.addAll(itemIds);
+            return rows;
+        });
+    }
+
+    private void refreshCommentStats(long itemId) {
+        jdbcTemplate.update("update item " +
+                "set comment_count = (select count(*) from comment c where c.item_id = item.item_id), " +
+                "last_comment_at = (select max(c.created) from comment c where c.item_id = item.item_id), " +
+                "version = version + 1 " +
+                "where item_id = ?", itemId);
+    }
+
+    private void evictFinishedDeletions() {
+        if (deletions.size() < MAX_TRACKED_DELETIONS) {
+            return;
+        }
+
+        deletions.values().removeIf(UserDeletionProgress::isFinished);
+    }
+}
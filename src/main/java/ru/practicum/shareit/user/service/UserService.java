@@ -3,41 +3,152 @@ package ru.practicum.shareit.user.service;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.core.exception.NotFoundException;
+import ru.practicum.shareit.core.pagination.MultiGet;
 import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.dto.BulkUserResultDto;
+import ru.practicum.shareit.user.dto.UserDeletionDto;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
 import ru.practicum.shareit.core.exception.DuplicatedEmailException;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserJpaRepository;
 import ru.practicum.shareit.user.dto.CreateUserDto;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 @Service
 @RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class UserService {
+    private static final int INSERT_BATCH_SIZE = 100;
+
     UserJpaRepository repo;
     UserMapper mapper;
+    EntityManager entityManager;
+    JdbcTemplate jdbcTemplate;
+    UserPurgeJob purgeJob;
+    PlatformTransactionManager transactionManager;
+
+    @Transactional(readOnly = true)
+    public List<User> findAll(long fromId, int size) {
+        return repo.findAllByIdGreaterThanAndDeletedFalseOrderByIdAsc(fromId, PageRequest.of(0, size));
+    }
 
-    public List<User> findAll() {
-        return repo.findAll();
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<User> consumer) {
+        try (Stream<User> users = repo.streamAll()) {
+            users.forEach(user -> {
+                consumer.accept(user);
+                entityManager.detach(user);
+            });
+        }
     }
 
+    @Transactional(readOnly = true)
     public User getById(long id) {
-        return repo.findById(id).orElseThrow(() -> new NotFoundException("user", id));
+        return repo.findById(id)
+                .filter(user -> !user.isDeleted())
+                .orElseThrow(() -> new NotFoundException("user", id));
+    }
+
+    @Transactional(readOnly = true)
+    public List<User> getAllById(List<Long> ids) {
+        List<Long> distinctIds = MultiGet.distinctIds(ids);
+        if (distinctIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<User> users = repo.findAllById(distinctIds)
+                .stream()
+                .filter(user -> !user.isDeleted())
+                .collect(Collectors.toList());
+
+        return MultiGet.inRequestOrder(distinctIds, users, User::getId);
     }
 
+    @Transactional
     public User create(CreateUserDto dto) {
         User user = mapper.toUser(dto);
 
         return repo.save(user);
     }
 
+    // no transaction: a batch that hits an email taken after the check is rolled back and retried row by row
+    public List<BulkUserResultDto> createAll(List<CreateUserDto> dtos) {
+        Set<String> takenEmails = repo.findAllByEmailIn(dtos.stream()
+                        .map(CreateUserDto::getEmail)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .map(User::getEmail)
+                .collect(Collectors.toSet());
+
+        BulkUserResultDto[] results = new BulkUserResultDto[dtos.size()];
+        Map<String, Integer> rowsToInsert = new LinkedHashMap<>();
+        List<CreateUserDto> usersToInsert = new ArrayList<>();
+
+        for (int row = 0; row < dtos.size(); row++) {
+            CreateUserDto dto = dtos.get(row);
+
+            if (takenEmails.contains(dto.getEmail()) || rowsToInsert.containsKey(dto.getEmail())) {
+                results[row] = conflict(row, dto.getEmail());
+            } else {
+                rowsToInsert.put(dto.getEmail(), row);
+                usersToInsert.add(dto);
+            }
+        }
+
+        if (!usersToInsert.isEmpty()) {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            try {
+                transaction.executeWithoutResult(status -> insertAll(usersToInsert));
+            } catch (DuplicateKeyException e) {
+                for (CreateUserDto dto : usersToInsert) {
+                    try {
+                        transaction.executeWithoutResult(status -> insertAll(List.of(dto)));
+                    } catch (DuplicateKeyException rowException) {
+                        int row = rowsToInsert.remove(dto.getEmail());
+                        results[row] = conflict(row, dto.getEmail());
+                    }
+                }
+            }
+        }
+
+        if (!rowsToInsert.isEmpty()) {
+            for (User user : repo.findAllByEmailIn(rowsToInsert.keySet())) {
+                int row = rowsToInsert.get(user.getEmail());
+                results[row] = BulkUserResultDto.builder()
+                        .row(row)
+                        .status(HttpStatus.CREATED.value())
+                        .user(user)
+                        .build();
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    @Transactional
     public User update(long id, UpdateUserDto dto) {
-        User user = repo.findById(id).orElseThrow(() -> new NotFoundException("user", id));
+        User user = getById(id);
 
         if (dto.getEmail() != null && !dto.getEmail().equals(user.getEmail())) {
             checkIfEmailHasDuplicates(dto.getEmail());
@@ -51,12 +162,40 @@ public class UserService {
         return repo.save(user);
     }
 
+    @Transactional
     public User delete(long id) {
-        User user = repo.findById(id).orElseThrow(() -> new NotFoundException("user", id));
-        repo.deleteById(id);
+        User user = getById(id);
+        user.setDeleted(true);
+        repo.save(user);
+
+        purgeJob.schedule(id);
+
         return user;
     }
 
+    public UserDeletionDto getDeletionProgress(long id) {
+        return purgeJob.getProgress(id).orElseThrow(() -> new NotFoundException("user deletion", id));
+    }
+
+    private void insertAll(List<CreateUserDto> dtos) {
+        jdbcTemplate.batchUpdate(
+                "insert into users (name, email, deleted) values (?, ?, false)",
+                dtos,
+                INSERT_BATCH_SIZE,
+                (statement, dto) -> {
+                    statement.setString(1, dto.getName());
+                    statement.setString(2, dto.getEmail());
+                });
+    }
+
+    private static BulkUserResultDto conflict(int row, String email) {
+        return BulkUserResultDto.builder()
+                .row(row)
+                .status(HttpStatus.CONFLICT.value())
+                .error(new DuplicatedEmailException(email).getMessage())
+                .build();
+    }
+
     private void checkIfEmailHasDuplicates(String email) {
         if (repo.findByEmail(email).isPresent()) {
             throw new DuplicatedEmailException(email);
@@ -0,0 +1,61 @@
+CREATE TABLE IF NOT EXISTS users
+(
+    user_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email   VARCHAR(50) UNIQUE NOT NULL,
+    name    VARCHAR(50)        NOT NULL,
+    deleted BOOLEAN DEFAULT FALSE NOT NULL,
+    version BIGINT  DEFAULT 0 NOT NULL
+    );
+
+CREATE TABLE IF NOT EXISTS request
+(
+    request_id  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    description VARCHAR(255) NOT NULL,
+    created     TIMESTAMP    NOT NULL,
+    user_id     BIGINT       NOT NULL,
+    version     BIGINT       DEFAULT 0 NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users (user_id) ON DELETE CASCADE
+    );
+
+CREATE TABLE IF NOT EXISTS item
+(
+    item_id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name            VARCHAR(50)  NOT NULL,
+    description     VARCHAR(255) NOT NULL,
+    available       BOOLEAN      NOT NULL,
+    owner_id        BIGINT       NOT NULL,
+    request_id      BIGINT,
+    comment_count   BIGINT       DEFAULT 0 NOT NULL,
+    last_comment_at TIMESTAMP,
+    version         BIGINT       DEFAULT 0 NOT NULL,
+    FOREIGN KEY (owner_id) REFERENCES users (user_id) ON DELETE CASCADE,
+    FOREIGN KEY (request_id) REFERENCES request (request_id)
+    );
+
+CREATE TABLE IF NOT EXISTS booking
+(
+    booking_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    start_time TIMESTAMP   NOT NULL,
+    end_time   TIMESTAMP   NOT NULL,
+    item_id    BIGINT      NOT NULL,
+    booker_id  BIGINT      NOT NULL,
+    status     VARCHAR(20) NOT NULL CHECK (status IN ('WAITING', 'APPROVED', 'REJECTED', 'CANCELED')),
+    version    BIGINT      DEFAULT 0 NOT NULL,
+    FOREIGN KEY (item_id) REFERENCES item (item_id) ON DELETE CASCADE,
+    FOREIGN KEY (booker_id) REFERENCES users (user_id) ON DELETE CASCADE
+    );
+
+CREATE INDEX IF NOT EXISTS booking_booker_item_status_end_idx ON booking (booker_id, item_id, status, end_time);
+
+CREATE TABLE IF NOT EXISTS comment
+(
+    comment_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    text       VARCHAR(255) NOT NULL,
+    item_id    BIGINT       NOT NULL,
+    author_id  BIGINT       NOT NULL,
+    created    TIMESTAMP    NOT NULL,
+    FOREIGN KEY (item_id) REFERENCES item (item_id) ON DELETE CASCADE,
+    FOREIGN KEY (author_id) REFERENCES users (user_id) ON DELETE CASCADE
+    );
+
+CREATE INDEX IF NOT EXISTS comment_item_id_idx ON comment (item_id, comment_id);
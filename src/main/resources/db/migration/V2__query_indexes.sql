@@ -0,0 +1,21 @@
+-- BookingJpaRepository: booker lists (ALL, CURRENT, PAST, FUTURE) filter on booker and order by start
+CREATE INDEX IF NOT EXISTS booking_booker_start_idx ON booking (booker_id, start_time);
+-- BookingJpaRepository: booker lists by status (WAITING, REJECTED)
+CREATE INDEX IF NOT EXISTS booking_booker_status_start_idx ON booking (booker_id, status, start_time);
+-- BookingJpaRepository: owner lists join through item, findAllByItemIdOrderByStartAsc, item timelines
+CREATE INDEX IF NOT EXISTS booking_item_start_idx ON booking (item_id, start_time);
+-- BookingJpaRepository: owner lists by status
+CREATE INDEX IF NOT EXISTS booking_item_status_start_idx ON booking (item_id, status, start_time);
+
+-- ItemJpaRepository.findAllByOwnerId, owner side of the booking owner lists
+CREATE INDEX IF NOT EXISTS item_owner_idx ON item (owner_id, item_id);
+-- ItemJpaRepository.findAllByRequestId, findAllWithRequestId, request link cleanup on user purge
+CREATE INDEX IF NOT EXISTS item_request_idx ON item (request_id);
+
+-- RequestJpaRepository.findAllByUserIdOrderByCreatedDesc
+CREATE INDEX IF NOT EXISTS request_user_created_idx ON request (user_id, created);
+-- RequestJpaRepository.findAllByUserIdIsNotOrderByCreatedDesc reads the newest requests first
+CREATE INDEX IF NOT EXISTS request_created_idx ON request (created);
+
+-- comment cleanup by author on user purge
+CREATE INDEX IF NOT EXISTS comment_author_idx ON comment (author_id);
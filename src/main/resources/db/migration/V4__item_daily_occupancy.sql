@@ -0,0 +1,11 @@
+-- Approved booking time per item and calendar day, kept up to date by ItemOccupancyJob.
+-- Counts bookings of both booking and booking_archive; rebuilt from them by the nightly job.
+CREATE TABLE IF NOT EXISTS item_daily_occupancy
+(
+    item_id          BIGINT NOT NULL,
+    occupancy_date   DATE   NOT NULL,
+    booked_minutes   BIGINT DEFAULT 0 NOT NULL,
+    bookings_started BIGINT DEFAULT 0 NOT NULL,
+    PRIMARY KEY (item_id, occupancy_date),
+    FOREIGN KEY (item_id) REFERENCES item (item_id) ON DELETE CASCADE
+    );
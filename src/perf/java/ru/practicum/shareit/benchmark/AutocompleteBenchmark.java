@@ -0,0 +1,68 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import ru.practicum.shareit.item.ItemAutocompleteProperties;
+import ru.practicum.shareit.item.ItemNameIndex;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup time of {@link ItemNameIndex}: a broad prefix that fills the limit and a narrow one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class AutocompleteBenchmark {
+    private static final int LIMIT = 10;
+
+    @Param({"1000", "100000"})
+    int itemsCount;
+
+    ItemNameIndex index;
+    String narrowPrefix;
+
+    @Setup
+    public void setUp() {
+        // the index is filled through updates below, the startup load reads nothing
+        JdbcTemplate noRows = new JdbcTemplate() {
+            @Override
+            public void query(String sql, RowCallbackHandler rch) {
+            }
+        };
+        index = new ItemNameIndex(noRows, new ItemAutocompleteProperties(), Runnable::run);
+        index.load();
+
+        PerfData.items(itemsCount, PerfData.user(1L), List.of(), new Random(PerfData.SEED))
+                .forEach(index::update);
+        narrowPrefix = "item " + itemsCount / 2;
+    }
+
+    @Benchmark
+    public Optional<List<ItemSuggestionDto>> broadPrefix() {
+        return index.find("it", LIMIT);
+    }
+
+    @Benchmark
+    public Optional<List<ItemSuggestionDto>> narrowPrefix() {
+        return index.find(narrowPrefix, LIMIT);
+    }
+}
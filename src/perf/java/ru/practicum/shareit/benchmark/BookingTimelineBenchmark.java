@@ -0,0 +1,63 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingTimeline;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class BookingTimelineBenchmark {
+    @Param({"10", "1000", "100000"})
+    int bookingsCount;
+
+    List<Booking> bookings;
+    LocalDateTime freeStart;
+    LocalDateTime freeEnd;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(PerfData.SEED);
+        User user = PerfData.user(1L);
+        List<Item> items = PerfData.items(1, user, List.of(), random);
+
+        bookings = PerfData.bookings(bookingsCount, items, PerfData.user(2L), PerfData.NOW, random);
+        freeStart = PerfData.NOW.plusYears(2);
+        freeEnd = freeStart.plusDays(1);
+    }
+
+    @Benchmark
+    public Booking findNext() {
+        return BookingTimeline.findNext(bookings, PerfData.NOW);
+    }
+
+    @Benchmark
+    public Booking findLast() {
+        return BookingTimeline.findLast(bookings, PerfData.NOW);
+    }
+
+    @Benchmark
+    public boolean hasOverlap() {
+        return BookingTimeline.hasOverlap(bookings, freeStart, freeEnd);
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.benchmark;
+
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingJpaRepository;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.comment.CommentJpaRepository;
+import ru.practicum.shareit.comment.CommentMapper;
+import ru.practicum.shareit.core.etag.EntityVersions;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemJpaRepository;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class ItemServiceBenchmark {
+    private static final int BOOKINGS_PER_ITEM = 20;
+    private static final int COMMENTS_PER_ITEM = 10;
+
+    @Param({"20", "500"})
+    int itemsCount;
+
+    ItemService itemService;
+    Pageable pageable;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(PerfData.SEED);
+        User owner = PerfData.user(1L);
+        List<Item> items = PerfData.items(itemsCount, owner, List.of(), random);
+        // ItemService reads the wall clock, so bookings are spread around the actual time of the run
+        List<Booking> bookings = PerfData.bookings(itemsCount * BOOKINGS_PER_ITEM, items, PerfData.user(2L),
+                LocalDateTime.now(), random);
+
+        ItemJpaRepository itemRepo = Stubs.of(ItemJpaRepository.class, Map.of(
+                "findAllByOwnerId", items));
+        BookingJpaRepository bookingRepo = Stubs.of(BookingJpaRepository.class, Map.of(
+                "findAllByItemOwnerIdOrderByStartDesc", bookings));
+        CommentJpaRepository commentRepo = Stubs.of(CommentJpaRepository.class, Map.of(
+                "findLatestByItemIds", PerfData.comments(itemsCount * COMMENTS_PER_ITEM, items, owner, random)));
+
+        itemService = new ItemService(
+                itemRepo,
+                bookingRepo,
+                null,
+                Mappers.getMapper(ItemMapper.class),
+                Mappers.getMapper(BookingMapper.class),
+                Mappers.getMapper(CommentMapper.class),
+                commentRepo,
+                null,
+                new EntityVersions(),
+                null
+        );
+        pageable = PageRequest.of(0, itemsCount);
+    }
+
+    @Benchmark
+    public List<ItemDto> getByUserId() {
+        return itemService.getByUserId(1L, pageable);
+    }
+}
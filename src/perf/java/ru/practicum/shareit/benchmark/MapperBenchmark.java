@@ -0,0 +1,82 @@
+package ru.practicum.shareit.benchmark;
+
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.ShortBookingDto;
+import ru.practicum.shareit.comment.Comment;
+import ru.practicum.shareit.comment.CommentMapper;
+import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.Request;
+import ru.practicum.shareit.request.RequestMapper;
+import ru.practicum.shareit.request.dto.RequestDto;
+import ru.practicum.shareit.user.User;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class MapperBenchmark {
+    final ItemMapper itemMapper = Mappers.getMapper(ItemMapper.class);
+    final BookingMapper bookingMapper = Mappers.getMapper(BookingMapper.class);
+    final CommentMapper commentMapper = Mappers.getMapper(CommentMapper.class);
+    final RequestMapper requestMapper = Mappers.getMapper(RequestMapper.class);
+
+    Item item;
+    Booking booking;
+    Comment comment;
+    Request request;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(PerfData.SEED);
+        User user = PerfData.user(1L);
+        List<Request> requests = PerfData.requests(1, user);
+        List<Item> items = PerfData.items(1, user, requests, random);
+
+        item = items.get(0);
+        item.setRequest(requests.get(0));
+        booking = PerfData.bookings(1, items, PerfData.user(2L), PerfData.NOW, random).get(0);
+        comment = PerfData.comments(1, items, user, random).get(0);
+        request = requests.get(0);
+    }
+
+    @Benchmark
+    public ItemDto toItemDto() {
+        return itemMapper.toItemDto(item);
+    }
+
+    @Benchmark
+    public ShortBookingDto toShortBookingDto() {
+        return bookingMapper.toShortBookingDto(booking);
+    }
+
+    @Benchmark
+    public CommentDto toCommentDto() {
+        return commentMapper.toCommentDto(comment);
+    }
+
+    @Benchmark
+    public RequestDto toRequestDto() {
+        return requestMapper.toRequestDto(request);
+    }
+}
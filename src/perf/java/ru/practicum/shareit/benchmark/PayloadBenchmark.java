@@ -0,0 +1,126 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.comment.CommentMapper;
+import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.Request;
+import ru.practicum.shareit.request.RequestMapper;
+import ru.practicum.shareit.request.dto.RequestDto;
+import ru.practicum.shareit.user.User;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Encode time of the largest list responses (GET /bookings/owner, /items, /requests/all) per wire format.
+ * Payload sizes are printed once per fork from the setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class PayloadBenchmark {
+    private static final int COMMENTS_PER_ITEM = 10;
+
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    @Param({"20", "500"})
+    int listSize;
+
+    ObjectMapper objectMapper;
+    List<Booking> bookings;
+    List<ItemDto> items;
+    List<RequestDto> requests;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .factory(factory(format))
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        Random random = new Random(PerfData.SEED);
+        User owner = PerfData.user(1L);
+        User booker = PerfData.user(2L);
+        List<Request> requestEntities = PerfData.requests(listSize, booker);
+        List<Item> itemEntities = PerfData.items(listSize, owner, requestEntities, random);
+        ItemMapper itemMapper = Mappers.getMapper(ItemMapper.class);
+        CommentMapper commentMapper = Mappers.getMapper(CommentMapper.class);
+        RequestMapper requestMapper = Mappers.getMapper(RequestMapper.class);
+
+        Map<Long, List<CommentDto>> commentsByItem = PerfData
+                .comments(listSize * COMMENTS_PER_ITEM, itemEntities, booker, random)
+                .stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(commentMapper::toCommentDto, Collectors.toList())));
+
+        bookings = PerfData.bookings(listSize, itemEntities, booker, PerfData.NOW, random);
+        items = itemEntities.stream()
+                .map(itemMapper::toItemDto)
+                .peek(item -> item.setComments(commentsByItem.getOrDefault(item.getId(), List.of())))
+                .collect(Collectors.toList());
+        requests = requestEntities.stream()
+                .map(requestMapper::toRequestDto)
+                .peek(request -> request.setItems(items.stream()
+                        .filter(item -> request.getId().equals(item.getRequestId()))
+                        .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+
+        System.out.printf("%s payload bytes for %d entries: bookings=%d, items=%d, requests=%d%n", format, listSize,
+                encodeBookings().length, encodeItems().length, encodeRequests().length);
+    }
+
+    @Benchmark
+    public byte[] encodeBookings() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookings);
+    }
+
+    @Benchmark
+    public byte[] encodeItems() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public byte[] encodeRequests() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(requests);
+    }
+
+    private static JsonFactory factory(String format) {
+        switch (format) {
+            case "cbor":
+                return new CBORFactory();
+            case "smile":
+                return new SmileFactory();
+            default:
+                return new JsonFactory();
+        }
+    }
+}
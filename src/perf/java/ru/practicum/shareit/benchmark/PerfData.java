@@ -0,0 +1,94 @@
+package ru.practicum.shareit.benchmark;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.comment.Comment;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.request.Request;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class PerfData {
+    public static final long SEED = 42L;
+    public static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 15, 12, 0);
+
+    private static final BookingStatus[] STATUSES = BookingStatus.values();
+
+    public static User user(long id) {
+        return User.builder()
+                .id(id)
+                .name("User " + id)
+                .email("user" + id + "@shareit.test")
+                .build();
+    }
+
+    public static List<Item> items(int count, User owner, List<Request> requests, Random random) {
+        List<Item> items = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            Request request = requests.isEmpty() || random.nextBoolean()
+                    ? null
+                    : requests.get(random.nextInt(requests.size()));
+
+            items.add(Item.builder()
+                    .id(id)
+                    .name("Item " + id)
+                    .description("Description of item " + id)
+                    .available(random.nextBoolean())
+                    .owner(owner)
+                    .request(request)
+                    .build());
+        }
+        return items;
+    }
+
+    public static List<Booking> bookings(int count, List<Item> items, User booker, LocalDateTime now, Random random) {
+        List<Booking> bookings = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            LocalDateTime start = now.plusHours(random.nextInt(24 * 365) - 24 * 180);
+
+            bookings.add(Booking.builder()
+                    .id(id)
+                    .start(start)
+                    .end(start.plusHours(1 + random.nextInt(72)))
+                    .item(items.get(random.nextInt(items.size())))
+                    .booker(booker)
+                    .status(STATUSES[random.nextInt(STATUSES.length)])
+                    .build());
+        }
+        return bookings;
+    }
+
+    public static List<Comment> comments(int count, List<Item> items, User author, Random random) {
+        List<Comment> comments = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            comments.add(Comment.builder()
+                    .id(id)
+                    .text("Comment " + id)
+                    .item(items.get(random.nextInt(items.size())))
+                    .author(author)
+                    .created(NOW.minusMinutes(random.nextInt(60 * 24 * 30)))
+                    .build());
+        }
+        return comments;
+    }
+
+    public static List<Request> requests(int count, User author) {
+        List<Request> requests = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            requests.add(Request.builder()
+                    .id(id)
+                    .description("Request " + id)
+                    .created(NOW.minusDays(id))
+                    .user(author)
+                    .build());
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.benchmark;
+
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.ItemJpaRepository;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.request.Request;
+import ru.practicum.shareit.request.RequestJpaRepository;
+import ru.practicum.shareit.request.RequestMapper;
+import ru.practicum.shareit.request.dto.RequestDto;
+import ru.practicum.shareit.request.service.RequestService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserJpaRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class RequestServiceBenchmark {
+    private static final int ITEMS_PER_REQUEST = 5;
+
+    @Param({"20", "500"})
+    int requestsCount;
+
+    RequestService requestService;
+    Pageable pageable;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(PerfData.SEED);
+        User user = PerfData.user(1L);
+        List<Request> requests = PerfData.requests(requestsCount, PerfData.user(2L));
+
+        UserJpaRepository userRepo = Stubs.of(UserJpaRepository.class, Map.of(
+                "findById", Optional.of(user)));
+        RequestJpaRepository requestRepo = Stubs.of(RequestJpaRepository.class, Map.of(
+                "findAllByUserIdIsNotOrderByCreatedDesc", requests));
+        ItemJpaRepository itemRepo = Stubs.of(ItemJpaRepository.class, Map.of(
+                "findAllWithRequestId", PerfData.items(requestsCount * ITEMS_PER_REQUEST, user, requests, random)));
+
+        requestService = new RequestService(
+                Mappers.getMapper(RequestMapper.class),
+                requestRepo,
+                itemRepo,
+                Mappers.getMapper(ItemMapper.class),
+                new UserService(userRepo, null, null, null, null)
+        );
+        pageable = PageRequest.of(0, requestsCount);
+    }
+
+    @Benchmark
+    public List<RequestDto> getOtherRequests() {
+        return requestService.getOtherRequests(1L, pageable);
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.benchmark;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class Stubs {
+    public static <T> T of(Class<T> type, Map<String, Object> results) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return handleObjectMethod(type, proxy, method, args);
+                    }
+
+                    if (results.containsKey(method.getName())) {
+                        return results.get(method.getName());
+                    }
+
+                    return defaultValue(method.getReturnType());
+                }));
+    }
+
+    private static Object handleObjectMethod(Class<?> type, Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return type.getSimpleName() + "Stub";
+        }
+    }
+
+    private static Object defaultValue(Class<?> returnType) {
+        if (returnType == Optional.class) {
+            return Optional.empty();
+        }
+        if (returnType == boolean.class) {
+            return false;
+        }
+        if (returnType == long.class) {
+            return 0L;
+        }
+        if (returnType == int.class) {
+            return 0;
+        }
+        if (Iterable.class.isAssignableFrom(returnType)) {
+            return Collections.emptyList();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.benchmark.load;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class Dataset {
+    private final List<Long> ownerIds;
+    private final List<Long> customerIds;
+    private final List<Long> itemIds;
+    private final long hotItemId;
+    private final long hotItemOwnerId;
+}
@@ -0,0 +1,151 @@
+package ru.practicum.shareit.benchmark.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.benchmark.PerfData;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+@Slf4j
+public class DatasetGenerator {
+    public static final String[] WORDS = {"drill", "ladder", "tent", "kayak", "projector", "saw", "bike", "camera"};
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int LINKED_TO_REQUEST_PERCENT = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Random random = new Random(PerfData.SEED);
+    private final String emailPattern;
+    private final String run;
+
+    public DatasetGenerator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.run = Long.toString(System.currentTimeMillis(), 36);
+        this.emailPattern = "perf-" + run + "-%";
+    }
+
+    public Dataset generate(DatasetScale scale) {
+        log.info("Generating dataset {}", scale);
+        long started = System.currentTimeMillis();
+
+        List<Long> userIds = insertUsers(scale.getUsers());
+        List<Long> ownerIds = userIds.subList(0, scale.getOwners());
+        List<Long> customerIds = userIds.subList(scale.getOwners(), userIds.size());
+
+        List<Long> requestIds = insertRequests(customerIds, scale.getRequests());
+        List<Long> itemIds = insertItems(ownerIds, requestIds, scale.getItemsPerOwner());
+
+        insertBookings(itemIds, customerIds, itemIds.size() * scale.getBookingsPerItem());
+        insertBookings(List.of(itemIds.get(0)), customerIds, scale.getHotItemBookings());
+        insertComments(itemIds, customerIds, itemIds.size() * scale.getCommentsPerItem());
+        refreshCommentStats();
+
+        log.info("Dataset generated in {} ms", System.currentTimeMillis() - started);
+        return new Dataset(ownerIds, customerIds, itemIds, itemIds.get(0), ownerIds.get(0));
+    }
+
+    private List<Long> insertUsers(int count) {
+        insert("insert into users (name, email, deleted) values (?, ?, false)", count,
+                i -> new Object[]{"Perf user " + i, "perf-" + run + "-" + i + "@shareit.test"});
+
+        return jdbcTemplate.queryForList("select user_id from users where email like ? order by user_id",
+                Long.class, emailPattern);
+    }
+
+    private List<Long> insertRequests(List<Long> customerIds, int count) {
+        LocalDateTime now = LocalDateTime.now();
+        insert("insert into request (description, created, user_id) values (?, ?, ?)", count,
+                i -> new Object[]{
+                        "Looking for a " + randomWord(),
+                        Timestamp.valueOf(now.minusMinutes(random.nextInt(60 * 24 * 365))),
+                        randomOf(customerIds)
+                });
+
+        return jdbcTemplate.queryForList("select r.request_id from request r " +
+                "join users u on r.user_id = u.user_id " +
+                "where u.email like ? order by r.request_id", Long.class, emailPattern);
+    }
+
+    private List<Long> insertItems(List<Long> ownerIds, List<Long> requestIds, int itemsPerOwner) {
+        insert("insert into item (name, description, available, owner_id, request_id, comment_count) " +
+                        "values (?, ?, ?, ?, ?, 0)", ownerIds.size() * itemsPerOwner,
+                i -> {
+                    String word = randomWord();
+                    boolean linked = !requestIds.isEmpty() && random.nextInt(100) < LINKED_TO_REQUEST_PERCENT;
+                    return new Object[]{
+                            word + " " + i,
+                            "A well kept " + word + " for rent",
+                            random.nextInt(10) > 0,
+                            ownerIds.get(i / itemsPerOwner),
+                            linked ? randomOf(requestIds) : null
+                    };
+                });
+
+        return jdbcTemplate.queryForList("select i.item_id from item i " +
+                "join users u on i.owner_id = u.user_id " +
+                "where u.email like ? order by i.item_id", Long.class, emailPattern);
+    }
+
+    private void insertBookings(List<Long> itemIds, List<Long> bookerIds, int count) {
+        LocalDateTime now = LocalDateTime.now();
+        BookingStatus[] statuses = BookingStatus.values();
+        insert("insert into booking (start_time, end_time, item_id, booker_id, status) values (?, ?, ?, ?, ?)", count,
+                i -> {
+                    LocalDateTime start = now.plusHours(random.nextInt(24 * 730) - 24 * 365);
+                    return new Object[]{
+                            Timestamp.valueOf(start),
+                            Timestamp.valueOf(start.plusHours(1 + random.nextInt(72))),
+                            randomOf(itemIds),
+                            randomOf(bookerIds),
+                            statuses[random.nextInt(statuses.length)].name()
+                    };
+                });
+    }
+
+    private void insertComments(List<Long> itemIds, List<Long> authorIds, int count) {
+        LocalDateTime now = LocalDateTime.now();
+        insert("insert into comment (text, item_id, author_id, created) values (?, ?, ?, ?)", count,
+                i -> new Object[]{
+                        "Comment " + i,
+                        randomOf(itemIds),
+                        randomOf(authorIds),
+                        Timestamp.valueOf(now.minusMinutes(random.nextInt(60 * 24 * 365)))
+                });
+    }
+
+    private void refreshCommentStats() {
+        jdbcTemplate.update("update item " +
+                "set comment_count = (select count(*) from comment c where c.item_id = item.item_id), " +
+                "last_comment_at = (select max(c.created) from comment c where c.item_id = item.item_id) " +
+                "where owner_id in (select user_id from users where email like ?)", emailPattern);
+    }
+
+    private void insert(String sql, int count, IntFunction<Object[]> row) {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            batch.add(row.apply(i));
+            if (batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+
+    private String randomWord() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private Long randomOf(List<Long> ids) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.benchmark.load;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@Builder
+@ToString
+public class DatasetScale {
+    private final int users;
+    private final int owners;
+    private final int itemsPerOwner;
+    private final int bookingsPerItem;
+    private final int hotItemBookings;
+    private final int commentsPerItem;
+    private final int requests;
+
+    public static DatasetScale fromSystemProperties() {
+        DatasetScale scale = DatasetScale.builder()
+                .users(Integer.getInteger("perf.users", 1_000))
+                .owners(Integer.getInteger("perf.owners", 10))
+                .itemsPerOwner(Integer.getInteger("perf.itemsPerOwner", 1_000))
+                .bookingsPerItem(Integer.getInteger("perf.bookingsPerItem", 5))
+                .hotItemBookings(Integer.getInteger("perf.hotItemBookings", 50_000))
+                .commentsPerItem(Integer.getInteger("perf.commentsPerItem", 2))
+                .requests(Integer.getInteger("perf.requests", 100_000))
+                .build();
+
+        if (scale.getOwners() < 1 || scale.getUsers() <= scale.getOwners() || scale.getItemsPerOwner() < 1) {
+            throw new IllegalArgumentException("Dataset needs at least one owner with items and one non-owner user: "
+                    + scale);
+        }
+        return scale;
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.benchmark.load;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.net.http.HttpRequest;
+import java.util.Random;
+import java.util.function.Function;
+
+@Getter
+@RequiredArgsConstructor
+public class Endpoint {
+    private final String name;
+    private final Function<Random, HttpRequest> requestFactory;
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.benchmark.load;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class EndpointStats {
+    private final String endpoint;
+    private final long requests;
+    private final long errors;
+    private final double throughput;
+    private final double p50Ms;
+    private final double p99Ms;
+    private final double maxMs;
+
+    @Override
+    public String toString() {
+        return String.format("%-22s %10d %8d %12.1f %10.2f %10.2f %10.2f",
+                endpoint, requests, errors, throughput, p50Ms, p99Ms, maxMs);
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.benchmark.load;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.shareit.benchmark.PerfData;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Slf4j
+@RequiredArgsConstructor
+public class LoadDriver {
+    private final HttpClient client;
+    private final List<Endpoint> endpoints;
+    private final int threads;
+
+    public List<EndpointStats> run(Duration warmup, Duration measurement) throws InterruptedException {
+        log.info("Warming up for {}", warmup);
+        drive(warmup);
+
+        log.info("Measuring for {} with {} threads", measurement, threads);
+        Map<String, LatencyRecorder> recorders = drive(measurement);
+
+        List<EndpointStats> stats = new ArrayList<>();
+        recorders.forEach((name, recorder) -> stats.add(recorder.toStats(name, measurement.toMillis() / 1000.0)));
+        return stats;
+    }
+
+    private Map<String, LatencyRecorder> drive(Duration duration) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        try {
+            List<Future<Map<String, LatencyRecorder>>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Random random = new Random(PerfData.SEED + i);
+                futures.add(executor.submit(() -> worker(random, deadline)));
+            }
+
+            Map<String, LatencyRecorder> merged = new TreeMap<>();
+            for (Future<Map<String, LatencyRecorder>> future : futures) {
+                future.get().forEach((name, recorder) ->
+                        merged.computeIfAbsent(name, key -> new LatencyRecorder()).merge(recorder));
+            }
+            return merged;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Load worker failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<String, LatencyRecorder> worker(Random random, long deadline) throws InterruptedException {
+        Map<String, LatencyRecorder> recorders = new HashMap<>();
+
+        while (System.nanoTime() < deadline) {
+            Endpoint endpoint = endpoints.get(random.nextInt(endpoints.size()));
+            HttpRequest request = endpoint.getRequestFactory().apply(random);
+            LatencyRecorder recorder = recorders.computeIfAbsent(endpoint.getName(), key -> new LatencyRecorder());
+
+            long started = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                recorder.record(System.nanoTime() - started);
+                if (response.statusCode() >= 400) {
+                    recorder.recordError();
+                }
+            } catch (IOException e) {
+                recorder.recordError();
+            }
+        }
+        return recorders;
+    }
+}
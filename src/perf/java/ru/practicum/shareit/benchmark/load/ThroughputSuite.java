@@ -0,0 +1,123 @@
+package ru.practicum.shareit.benchmark.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareitApplication;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+@Slf4j
+public class ThroughputSuite {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String PAGE = "from=0&size=20";
+
+    public static void main(String[] args) throws Exception {
+        DatasetScale scale = DatasetScale.fromSystemProperties();
+        int threads = Integer.getInteger("perf.threads", 16);
+        Duration warmup = Duration.ofSeconds(Long.getLong("perf.warmupSeconds", 10));
+        Duration measurement = Duration.ofSeconds(Long.getLong("perf.durationSeconds", 30));
+        File result = new File(System.getProperty("perf.result", "target/throughput-result.json"));
+
+        try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext)
+                new SpringApplicationBuilder(ShareitApplication.class)
+                        .profiles("test")
+                        .run(applicationArgs())) {
+            Dataset dataset = new DatasetGenerator(context.getBean(JdbcTemplate.class)).generate(scale);
+
+            URI baseUri = URI.create("http://localhost:" + context.getWebServer().getPort());
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            List<EndpointStats> stats = new LoadDriver(client, endpoints(baseUri, dataset), threads)
+                    .run(warmup, measurement);
+
+            report(stats);
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(result, stats);
+            log.info("Results written to {}", result.getAbsolutePath());
+        }
+    }
+
+    private static String[] applicationArgs() {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--shareit.rate-limit.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.ru.practicum.shareit.benchmark=INFO",
+                "--logging.level.org.springframework.transaction.interceptor=WARN",
+                "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN",
+                "--logging.level.org.springframework.web.servlet.DispatcherServlet=WARN"
+        ));
+
+        String url = System.getProperty("perf.datasource.url");
+        if (url != null) {
+            // external databases are expected to have the schema already
+            args.add("--spring.datasource.url=" + url);
+            args.add("--spring.datasource.username=" + System.getProperty("perf.datasource.username", ""));
+            args.add("--spring.datasource.password=" + System.getProperty("perf.datasource.password", ""));
+            args.add("--spring.datasource.driverClassName=" + (url.startsWith("jdbc:postgresql")
+                    ? "org.postgresql.Driver"
+                    : "org.h2.Driver"));
+            args.add("--spring.flyway.enabled=false");
+        }
+        return args.toArray(String[]::new);
+    }
+
+    private static List<Endpoint> endpoints(URI baseUri, Dataset dataset) {
+        return List.of(
+                new Endpoint("GET /items", random ->
+                        get(baseUri, "/items?" + PAGE, randomOf(dataset.getOwnerIds(), random))),
+                new Endpoint("GET /items/{id}", random ->
+                        get(baseUri, "/items/" + randomOf(dataset.getItemIds(), random), null)),
+                new Endpoint("GET /items/{hot}", random ->
+                        get(baseUri, "/items/" + dataset.getHotItemId(), dataset.getHotItemOwnerId())),
+                new Endpoint("GET /items/search", random ->
+                        get(baseUri, "/items/search?text="
+                                + DatasetGenerator.WORDS[random.nextInt(DatasetGenerator.WORDS.length)]
+                                + "&" + PAGE, null)),
+                new Endpoint("GET /bookings", random ->
+                        get(baseUri, "/bookings?state=ALL&" + PAGE, randomOf(dataset.getCustomerIds(), random))),
+                new Endpoint("GET /bookings/owner", random ->
+                        get(baseUri, "/bookings/owner?state=ALL&" + PAGE, randomOf(dataset.getOwnerIds(), random))),
+                new Endpoint("GET /requests", random ->
+                        get(baseUri, "/requests", randomOf(dataset.getCustomerIds(), random))),
+                new Endpoint("GET /requests/all", random ->
+                        get(baseUri, "/requests/all?" + PAGE, randomOf(dataset.getCustomerIds(), random))),
+                new Endpoint("GET /users/{id}", random ->
+                        get(baseUri, "/users/" + randomOf(dataset.getCustomerIds(), random), null))
+        );
+    }
+
+    private static HttpRequest get(URI baseUri, String path, Long userId) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .GET();
+
+        if (userId != null) {
+            builder.header(USER_ID_HEADER, userId.toString());
+        }
+        return builder.build();
+    }
+
+    private static Long randomOf(List<Long> ids, Random random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private static void report(List<EndpointStats> stats) {
+        StringBuilder report = new StringBuilder(String.format("%n%-22s %10s %8s %12s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms"));
+        stats.forEach(endpointStats -> report.append(endpointStats).append(System.lineSeparator()));
+        log.info(report.toString());
+    }
+}
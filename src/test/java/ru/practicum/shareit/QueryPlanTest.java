@@ -0,0 +1,171 @@
+package ru.practicum.shareit;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import ru.practicum.shareit.booking.BookingJpaRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.comment.CommentJpaRepository;
+import ru.practicum.shareit.item.ItemJpaRepository;
+import ru.practicum.shareit.request.RequestJpaRepository;
+import ru.practicum.shareit.utils.CapturedSql;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hot repository queries must be able to use an index. The repository methods are called for real and the SQL
+ * Hibernate prepared for them is explained with the same bind values.
+ */
+@SpringBootTest(properties = CapturedSql.PROPERTY)
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+class QueryPlanTest {
+    static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 15, 12, 0);
+    static final int PAGE_SIZE = 20;
+    static final Pageable PAGE = PageRequest.of(0, PAGE_SIZE);
+    static final long ID = 1L;
+
+    BookingJpaRepository bookingRepo;
+    ItemJpaRepository itemRepo;
+    RequestJpaRepository requestRepo;
+    CommentJpaRepository commentRepo;
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void hotQueries_shouldNotScanTablesOnH2() {
+        hotQueries().forEach(query -> assertThat(explain(jdbcTemplate, query))
+                .as(query.getName() + ": " + query.getSql())
+                .doesNotContainIgnoringCase("tableScan"));
+    }
+
+    /**
+     * Runs against a scratch PostgreSQL database given by {@code -Dexplain.postgres.url}, migrated into its own schema.
+     * Sequential scans are disabled, so the planner only falls back to one if no index fits the query.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "explain.postgres.url", matches = ".+")
+    void hotQueries_shouldNotScanTablesOnPostgres() {
+        List<HotQuery> queries = hotQueries();
+        String schema = "shareit_explain";
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                System.getProperty("explain.postgres.url"),
+                System.getProperty("explain.postgres.username", "postgres"),
+                System.getProperty("explain.postgres.password", ""),
+                true);
+        try {
+            Flyway.configure()
+                    .dataSource(dataSource)
+                    .schemas(schema)
+                    .locations("classpath:db/migration", "classpath:db/vendor/postgresql")
+                    .load()
+                    .migrate();
+
+            JdbcTemplate postgres = new JdbcTemplate(dataSource);
+            postgres.execute("set search_path to " + schema);
+            postgres.execute("set enable_seqscan = off");
+
+            queries.forEach(query -> assertThat(explain(postgres, query))
+                    .as(query.getName() + ": " + query.getSql())
+                    .doesNotContain("Seq Scan"));
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    /**
+     * Bind values are listed in the order of the statement's placeholders, the page size last.
+     */
+    private List<HotQuery> hotQueries() {
+        String waiting = BookingStatus.WAITING.name();
+        String approved = BookingStatus.APPROVED.name();
+        List<HotQuery> queries = new ArrayList<>();
+
+        queries.add(capture("findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc",
+                () -> bookingRepo.findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(ID, NOW, NOW, PAGE),
+                ID, NOW, NOW, PAGE_SIZE));
+        queries.add(capture("findAllByBookerIdAndStartAfterOrderByStartDesc",
+                () -> bookingRepo.findAllByBookerIdAndStartAfterOrderByStartDesc(ID, NOW, PAGE),
+                ID, NOW, PAGE_SIZE));
+        queries.add(capture("findAllByItemOwnerIdOrderByStartDesc",
+                () -> bookingRepo.findAllByItemOwnerIdOrderByStartDesc(ID, PAGE),
+                ID, PAGE_SIZE));
+        queries.add(capture("findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc",
+                () -> bookingRepo.findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(ID, NOW, NOW, PAGE),
+                ID, NOW, NOW, PAGE_SIZE));
+        queries.add(capture("findAllByItemIdOrderByStartAsc",
+                () -> bookingRepo.findAllByItemIdOrderByStartAsc(ID),
+                ID));
+        queries.add(capture("existsByBookerIdAndItemIdAndStatusAndEndBefore",
+                () -> bookingRepo.existsByBookerIdAndItemIdAndStatusAndEndBefore(ID, ID, BookingStatus.APPROVED, NOW),
+                ID, ID, approved, NOW, 1));
+        queries.add(capture("findAllByBookerIdIncludingArchive",
+                () -> bookingRepo.findAllByBookerIdIncludingArchive(ID, PAGE),
+                ID, ID, PAGE_SIZE));
+        queries.add(capture("findAllByBookerIdAndEndBeforeIncludingArchive",
+                () -> bookingRepo.findAllByBookerIdAndEndBeforeIncludingArchive(ID, NOW, PAGE),
+                ID, NOW, ID, NOW, PAGE_SIZE));
+        queries.add(capture("findAllByBookerIdAndStatusIncludingArchive",
+                () -> bookingRepo.findAllByBookerIdAndStatusIncludingArchive(ID, waiting, PAGE),
+                ID, waiting, ID, waiting, PAGE_SIZE));
+        queries.add(capture("findAllByItemOwnerIdIncludingArchive",
+                () -> bookingRepo.findAllByItemOwnerIdIncludingArchive(ID, PAGE),
+                ID, ID, PAGE_SIZE));
+        queries.add(capture("findAllByItemOwnerIdAndStatusIncludingArchive",
+                () -> bookingRepo.findAllByItemOwnerIdAndStatusIncludingArchive(ID, waiting, PAGE),
+                ID, waiting, ID, waiting, PAGE_SIZE));
+        queries.add(capture("existsArchivedByBookerIdAndItemIdAndStatusAndEndBefore",
+                () -> bookingRepo.existsArchivedByBookerIdAndItemIdAndStatusAndEndBefore(ID, ID, approved, NOW),
+                ID, ID, approved, NOW));
+        queries.add(capture("findAllByOwnerId",
+                () -> itemRepo.findAllByOwnerId(ID, PAGE),
+                ID, PAGE_SIZE));
+        queries.add(capture("findAllByRequestId",
+                () -> itemRepo.findAllByRequestId(ID),
+                ID));
+        queries.add(capture("findAllByUserIdOrderByCreatedDesc",
+                () -> requestRepo.findAllByUserIdOrderByCreatedDesc(ID),
+                ID));
+        queries.add(capture("findAllByItemIdOrderByIdDesc",
+                () -> commentRepo.findAllByItemIdOrderByIdDesc(ID, PAGE),
+                ID, PAGE_SIZE));
+        return queries;
+    }
+
+    private static HotQuery capture(String name, Runnable call, Object... args) {
+        List<String> statements = CapturedSql.of(call);
+        assertThat(statements).as(name).hasSize(1);
+        String sql = statements.get(0);
+        assertThat(sql.chars().filter(c -> c == '?').count())
+                .as(name + " bind values for: " + sql)
+                .isEqualTo(args.length);
+        return new HotQuery(name, sql, args);
+    }
+
+    private static String explain(JdbcTemplate jdbcTemplate, HotQuery query) {
+        return String.join("\n",
+                jdbcTemplate.queryForList("explain " + query.getSql(), String.class, query.getArgs()));
+    }
+
+    @Value
+    static class HotQuery {
+        String name;
+        String sql;
+        Object[] args;
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.comment.dto.CreateCommentDto;
+import ru.practicum.shareit.core.exception.NotFoundException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemJpaRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.dto.CreateUserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.utils.TestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+class BookingArchiveJobTest {
+    BookingArchiveJob archiveJob;
+    BookingService bookingService;
+    BookingJpaRepository bookingRepo;
+    ItemJpaRepository itemRepo;
+    ItemService itemService;
+    UserService userService;
+
+    @Test
+    void archiveEndedBefore_shouldKeepArchivedBookingsVisible() {
+        User owner = userService.create(new CreateUserDto("owner", "archive-owner@test.test"));
+        User booker = userService.create(new CreateUserDto("booker", "archive-booker@test.test"));
+        long itemId = itemService.create(owner.getId(), TestUtils.makeCreateItemDto(true, null)).getId();
+        Item item = itemRepo.findById(itemId).orElseThrow();
+        LocalDateTime now = LocalDateTime.now();
+        Booking old = bookingRepo.save(makeBooking(item, booker, now.minusYears(2), now.minusYears(2).plusDays(1)));
+        Booking recent = bookingRepo.save(makeBooking(item, booker, now.minusDays(2), now.minusDays(1)));
+
+        int moved = archiveJob.archiveEndedBefore(now.minusYears(1));
+
+        assertThat(moved).isEqualTo(1);
+        assertThat(bookingRepo.findById(old.getId())).isEmpty();
+        assertThat(bookingRepo.findById(recent.getId())).isPresent();
+
+        List<Booking> past = bookingService.getAllByBooker(booker.getId(), "PAST", PageRequest.of(0, 10));
+        assertThat(past).extracting(Booking::getId).containsExactly(recent.getId(), old.getId());
+        List<Booking> owned = bookingService.getAllByOwner(owner.getId(), "ALL", PageRequest.of(0, 1));
+        assertThat(owned).extracting(Booking::getId).containsExactly(recent.getId());
+        assertThat(bookingService.getById(old.getId(), booker.getId()).getId()).isEqualTo(old.getId());
+    }
+
+    @Test
+    void archiveEndedBefore_shouldFallBackToArchiveForLastBookingAndComments() {
+        User owner = userService.create(new CreateUserDto("owner", "archive-last-owner@test.test"));
+        User booker = userService.create(new CreateUserDto("booker", "archive-last-booker@test.test"));
+        long itemId = itemService.create(owner.getId(), TestUtils.makeCreateItemDto(true, null)).getId();
+        Item item = itemRepo.findById(itemId).orElseThrow();
+        LocalDateTime now = LocalDateTime.now();
+        Booking old = bookingRepo.save(makeBooking(item, booker, now.minusYears(2), now.minusYears(2).plusDays(1)));
+
+        archiveJob.archiveEndedBefore(now.minusYears(1));
+
+        ItemDto ownerView = itemService.getById(itemId, owner.getId());
+        assertThat(ownerView.getLastBooking()).isNotNull();
+        assertThat(ownerView.getLastBooking().getId()).isEqualTo(old.getId());
+        assertThatNoException().isThrownBy(() -> itemService.comment(itemId, booker.getId(),
+                new CreateCommentDto("Still remember it")));
+    }
+
+    @Test
+    void deleteItem_shouldRemoveArchivedBookingsOfTheItem() {
+        User owner = userService.create(new CreateUserDto("owner", "archive-delete-owner@test.test"));
+        User booker = userService.create(new CreateUserDto("booker", "archive-delete-booker@test.test"));
+        long itemId = itemService.create(owner.getId(), TestUtils.makeCreateItemDto(true, null)).getId();
+        long keptItemId = itemService.create(owner.getId(), TestUtils.makeCreateItemDto(true, null)).getId();
+        LocalDateTime now = LocalDateTime.now();
+        Booking old = bookingRepo.save(makeBooking(itemRepo.findById(itemId).orElseThrow(), booker,
+                now.minusYears(2), now.minusYears(2).plusDays(1)));
+        Booking kept = bookingRepo.save(makeBooking(itemRepo.findById(keptItemId).orElseThrow(), booker,
+                now.minusYears(3), now.minusYears(3).plusDays(1)));
+        archiveJob.archiveEndedBefore(now.minusYears(1));
+
+        itemService.delete(itemId);
+
+        List<Booking> past = bookingService.getAllByBooker(booker.getId(), "PAST", PageRequest.of(0, 10));
+        assertThat(past).extracting(Booking::getId).containsExactly(kept.getId());
+        assertThat(bookingService.getCountsByBooker(booker.getId()).getAll()).isEqualTo(1);
+        assertThatThrownBy(() -> bookingService.getById(old.getId(), booker.getId()))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    private Booking makeBooking(Item item, User booker, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .start(start)
+                .end(end)
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.APPROVED)
+                .build();
+    }
+}
@@ -0,0 +1,237 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.core.exception.ExceptionsHandler;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemJpaRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.dto.CreateUserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.utils.StatementBudget;
+import ru.practicum.shareit.utils.TestUtils;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class BookingControllerIntegrationTest {
+    static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    MockMvc mockMvc;
+    final BookingController bookingController;
+    final BookingJpaRepository bookingRepo;
+    final BookingService bookingService;
+    final ItemJpaRepository itemRepo;
+    final ItemService itemService;
+    final UserService userService;
+    final EntityManagerFactory entityManagerFactory;
+    final PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setMockMvc() {
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(bookingController)
+                .setControllerAdvice(ExceptionsHandler.class)
+                .build();
+    }
+
+    @Test
+    void getEndpoints_shouldStayWithinStatementBudget() throws Exception {
+        User owner = userService.create(new CreateUserDto("owner", "booking-budget-owner@test.test"));
+        User booker = userService.create(new CreateUserDto("booker", "booking-budget-booker@test.test"));
+        LocalDateTime now = LocalDateTime.now();
+        Booking previous = null;
+        Booking booking = null;
+
+        for (int i = 0; i < 3; i++) {
+            previous = booking;
+            long itemId = itemService.create(owner.getId(), TestUtils.makeCreateItemDto(true, null)).getId();
+            Item item = itemRepo.findById(itemId).orElseThrow();
+            booking = bookingRepo.save(Booking.builder()
+                    .start(now.plusDays(i + 1))
+                    .end(now.plusDays(i + 2))
+                    .item(item)
+                    .booker(booker)
+                    .status(BookingStatus.WAITING)
+                    .build());
+        }
+        long bookingId = booking.getId();
+        long previousId = previous.getId();
+
+        StatementBudget.assertWithin(entityManagerFactory, 4, () -> mockMvc.perform(get("/bookings")
+                        .header(USER_ID_HEADER, booker.getId())
+                        .queryParam("from", "0")
+                        .queryParam("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].item.owner.id").value(owner.getId()))
+                .andExpect(jsonPath("$[0].booker.id").value(booker.getId())));
+
+        StatementBudget.assertWithin(entityManagerFactory, 4, () -> mockMvc.perform(get("/bookings/owner")
+                        .header(USER_ID_HEADER, owner.getId())
+                        .queryParam("from", "0")
+                        .queryParam("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].item.owner.id").value(owner.getId()))
+                .andExpect(jsonPath("$[0].booker.id").value(booker.getId())));
+
+        StatementBudget.assertWithin(entityManagerFactory, 1, () -> mockMvc.perform(get("/bookings/" + bookingId)
+                        .header(USER_ID_HEADER, booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.item.owner.id").value(owner.getId()))
+                .andExpect(jsonPath("$.booker.id").value(booker.getId())));
+
+        StatementBudget.assertWithin(entityManagerFactory, 1, () -> mockMvc.perform(get("/bookings")
+                        .header(USER_ID_HEADER, owner.getId())
+                        .queryParam("ids", bookingId + "," + previousId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(bookingId))
+                .andExpect(jsonPath("$[1].item.owner.id").value(owner.getId())));
+    }
+
+    @Test
+    void getCounts_shouldCountAllStatesInOneQueryAndRefreshAfterWrites() throws Exception {
+        User owner = userService.create(new CreateUserDto("owner", "booking-counts-owner@test.test"));
+        User booker = userService.create(new CreateUserDto("booker", "booking-counts-booker@test.test"));
+        long itemId = itemService.create(owner.getId(), TestUtils.makeCreateItemDto(true, null)).getId();
+        Item item = itemRepo.findById(itemId).orElseThrow();
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepo.save(Booking.builder().start(now.minusDays(3)).end(now.minusDays(2))
+                .item(item).booker(booker).status(BookingStatus.APPROVED).build());
+        bookingRepo.save(Booking.builder().start(now.minusDays(1)).end(now.plusDays(1))
+                .item(item).booker(booker).status(BookingStatus.APPROVED).build());
+        Booking future = bookingRepo.save(Booking.builder().start(now.plusDays(2)).end(now.plusDays(3))
+                .item(item).booker(booker).status(BookingStatus.WAITING).build());
+
+        StatementBudget.assertWithin(entityManagerFactory, 2, () -> mockMvc.perform(get("/bookings/owner/counts")
+                        .header(USER_ID_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.all").value(3))
+                .andExpect(jsonPath("$.current").value(1))
+                .andExpect(jsonPath("$.past").value(1))
+                .andExpect(jsonPath("$.future").value(1))
+                .andExpect(jsonPath("$.waiting").value(1))
+                .andExpect(jsonPath("$.rejected").value(0)));
+
+        StatementBudget.assertWithin(entityManagerFactory, 0, () -> mockMvc.perform(get("/bookings/owner/counts")
+                        .header(USER_ID_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.waiting").value(1)));
+
+        bookingService.update(future.getId(), owner.getId(), false);
+
+        mockMvc.perform(get("/bookings/counts")
+                        .header(USER_ID_HEADER, booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.all").value(3))
+                .andExpect(jsonPath("$.waiting").value(0))
+                .andExpect(jsonPath("$.rejected").value(1));
+        mockMvc.perform(get("/bookings/owner/counts")
+                        .header(USER_ID_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.waiting").value(0))
+                .andExpect(jsonPath("$.rejected").value(1));
+    }
+
+    @Test
+    void update_shouldLetOnlyOneOfConcurrentApprovalsCommit() throws Exception {
+        User owner = userService.create(new CreateUserDto("owner", "booking-race-owner@test.test"));
+        User booker = userService.create(new CreateUserDto("booker", "booking-race-booker@test.test"));
+        long itemId = itemService.create(owner.getId(), TestUtils.makeCreateItemDto(true, null)).getId();
+        Booking booking = bookingRepo.save(Booking.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(itemRepo.findById(itemId).orElseThrow())
+                .booker(booker)
+                .status(BookingStatus.WAITING)
+                .build());
+        ExecutorService otherRequest = Executors.newSingleThreadExecutor();
+
+        try {
+            // the first approval reads the waiting booking, the second one commits before the first does
+            assertThatThrownBy(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                bookingService.update(booking.getId(), owner.getId(), true);
+                assertThatNoException().isThrownBy(() -> otherRequest
+                        .submit(() -> bookingService.update(booking.getId(), owner.getId(), false))
+                        .get());
+            })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        } finally {
+            otherRequest.shutdown();
+        }
+
+        assertThat(bookingRepo.findById(booking.getId()).orElseThrow().getStatus())
+                .isEqualTo(BookingStatus.REJECTED);
+    }
+
+    @Test
+    void getById_shouldAnswerNotModifiedWithoutQueries() throws Exception {
+        User owner = userService.create(new CreateUserDto("owner", "booking-etag-owner@test.test"));
+        User booker = userService.create(new CreateUserDto("booker", "booking-etag-booker@test.test"));
+        long itemId = itemService.create(owner.getId(), TestUtils.makeCreateItemDto(true, null)).getId();
+        Booking booking = bookingRepo.save(Booking.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(itemRepo.findById(itemId).orElseThrow())
+                .booker(booker)
+                .status(BookingStatus.WAITING)
+                .build());
+
+        String etag = mockMvc.perform(get("/bookings/" + booking.getId())
+                        .header(USER_ID_HEADER, booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        StatementBudget.assertWithin(entityManagerFactory, 0, () -> mockMvc.perform(get("/bookings/" + booking.getId())
+                        .header(USER_ID_HEADER, owner.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified()));
+
+        mockMvc.perform(get("/bookings/" + booking.getId())
+                        .header(USER_ID_HEADER, owner.getId() + 1000)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotFound());
+
+        booking.setStatus(BookingStatus.APPROVED);
+        bookingRepo.save(booking);
+
+        mockMvc.perform(get("/bookings/" + booking.getId())
+                        .header(USER_ID_HEADER, booker.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+}
@@ -9,11 +9,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.core.etag.ConditionalGetCache;
+import ru.practicum.shareit.core.etag.EntityVersions;
 import ru.practicum.shareit.core.exception.ExceptionsHandler;
+import ru.practicum.shareit.core.idempotency.IdempotencyStore;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.utils.TestUtils;
 import ru.practicum.shareit.booking.dto.BookingDto;
 
 import java.time.LocalDateTime;
@@ -36,6 +43,12 @@ class BookingControllerTest {
     @Mock
     private BookingService bookingService;
 
+    @Spy
+    private ConditionalGetCache conditionalGetCache = new ConditionalGetCache(new EntityVersions());
+
+    @Spy
+    private IdempotencyStore idempotencyStore = new IdempotencyStore();
+
     @InjectMocks
     private BookingController bookingController;
 
@@ -73,7 +86,9 @@ class BookingControllerTest {
     void getByIdTest() throws Exception {
         long bookingId = 1L;
         long bookerId = 1L;
-        Booking booking = new Booking(bookingId, null, null, null, null, null);
+        User booker = TestUtils.makeUser(bookerId);
+        Booking booking = new Booking(bookingId, null, null,
+                TestUtils.makeItem(1L, true, TestUtils.makeUser(2L)), booker, BookingStatus.WAITING, 0L);
 
         when(bookingService.getById(anyLong(), anyLong())).thenReturn(booking);
 
@@ -93,7 +108,7 @@ class BookingControllerTest {
         mockMvc.perform(post("/bookings").contentType(MediaType.APPLICATION_JSON).header(USER_ID_HEADER, bookerId).content(json))
                 .andExpect(status().isBadRequest());
 
-        Booking booking = new Booking(bookingId, null, null, null, null, null);
+        Booking booking = new Booking(bookingId, null, null, null, null, null, 0L);
         bookingDto = new BookingDto(1L, LocalDateTime.now(), LocalDateTime.now());
         json = objectMapper.writeValueAsString(bookingDto);
 
@@ -108,7 +123,7 @@ class BookingControllerTest {
     void updateTest() throws Exception {
         long bookingId = 1L;
         long bookerId = 1L;
-        Booking booking = new Booking(bookingId, null, null, null, null, null);
+        Booking booking = new Booking(bookingId, null, null, null, null, null, 0L);
 
         when(bookingService.update(anyLong(), anyLong(), anyBoolean())).thenReturn(booking);
 
@@ -120,4 +135,39 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().json(objectMapper.writeValueAsString(booking)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void update_shouldAnswerConflictOnConcurrentChange() throws Exception {
+        long bookingId = 1L;
+
+        when(bookingService.update(anyLong(), anyLong(), anyBoolean()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, bookingId));
+
+        mockMvc.perform(patch("/bookings/" + bookingId)
+                        .header(USER_ID_HEADER, 1L)
+                        .queryParam("approved", "true"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void create_shouldNotCreateDuplicateOnRetry() throws Exception {
+        long bookerId = 1L;
+        Booking booking = new Booking(1L, null, null, null, null, null, 0L);
+        BookingDto bookingDto = new BookingDto(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+        String json = objectMapper.writeValueAsString(bookingDto);
+
+        when(bookingService.create(anyLong(), any())).thenReturn(booking);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/bookings")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .header(USER_ID_HEADER, bookerId)
+                            .header(IdempotencyStore.HEADER, "booking-retry")
+                            .content(json))
+                    .andExpect(status().isOk())
+                    .andExpect(content().json(objectMapper.writeValueAsString(booking)));
+        }
+
+        verify(bookingService, times(1)).create(anyLong(), any());
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BookingCountsCacheTest {
+    final BookingCountsProperties properties = new BookingCountsProperties();
+    final BookingCountsCache cache = new BookingCountsCache(properties);
+    final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_shouldLoadOnceUntilEvicted() {
+        assertThat(cache.get(BookingCountsCache.OWNER, 1L, this::load).getAll()).isEqualTo(1);
+        assertThat(cache.get(BookingCountsCache.OWNER, 1L, this::load).getAll()).isEqualTo(1);
+        assertThat(cache.get(BookingCountsCache.BOOKER, 1L, this::load).getAll()).isEqualTo(2);
+
+        cache.evict(1L);
+
+        assertThat(cache.get(BookingCountsCache.OWNER, 1L, this::load).getAll()).isEqualTo(3);
+    }
+
+    @Test
+    void get_shouldNotCacheWithZeroTtl() {
+        properties.setTtl(Duration.ZERO);
+
+        cache.get(BookingCountsCache.OWNER, 1L, this::load);
+        cache.get(BookingCountsCache.OWNER, 1L, this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_shouldNotKeepCountsLoadedDuringEviction() {
+        cache.get(BookingCountsCache.OWNER, 1L, () -> {
+            cache.evict(2L);
+            return load();
+        });
+        cache.get(BookingCountsCache.OWNER, 1L, this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private BookingCountsDto load() {
+        long all = loads.incrementAndGet();
+        return new BookingCountsDto(all, 0, 0, 0, 0, 0);
+    }
+}
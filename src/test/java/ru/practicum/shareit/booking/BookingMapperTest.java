@@ -23,7 +23,7 @@ class BookingMapperTest {
     void bookingToShortBookingDto() {
         User user = TestUtils.makeUser(1L);
         Item item = TestUtils.makeItem(1L, true, user);
-        Booking booking = new Booking(1L, LocalDateTime.now(), LocalDateTime.now(), item, user, BookingStatus.WAITING);
+        Booking booking = new Booking(1L, LocalDateTime.now(), LocalDateTime.now(), item, user, BookingStatus.WAITING, 0L);
 
         ShortBookingDto dto = bookingMapper.toShortBookingDto(booking);
 
@@ -11,11 +11,14 @@ import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.core.exception.NotFoundException;
 import ru.practicum.shareit.core.exception.UnsupportedStatusException;
+import ru.practicum.shareit.core.pagination.MultiGet;
 import ru.practicum.shareit.utils.TestUtils;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.core.exception.FieldValidationException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemJpaRepository;
+import ru.practicum.shareit.item.ItemOccupancyJob;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.service.UserService;
@@ -23,6 +26,9 @@ import ru.practicum.shareit.user.service.UserService;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -45,13 +51,19 @@ class BookingServiceTest {
     @Mock
     ItemJpaRepository itemRepo;
 
+    @Mock
+    BookingCountsCache countsCache;
+
+    @Mock
+    ItemOccupancyJob occupancyJob;
+
     @InjectMocks
     BookingService service;
 
     @Test
-    void getAllByBooker_shouldCallFindAllByBookerIdOrderByStartDesc() {
+    void getAllByBooker_shouldCallFindAllByBookerIdIncludingArchive() {
         service.getAllByBooker(1L, "ALL", null);
-        verify(repo).findAllByBookerIdOrderByStartDesc(anyLong(), any());
+        verify(repo).findAllByBookerIdIncludingArchive(anyLong(), any());
     }
 
     @Test
@@ -62,10 +74,10 @@ class BookingServiceTest {
     }
 
     @Test
-    void getAllByBooker_shouldCallFindAllByBookerIdAndEndBeforeOrderByStartDesc() {
+    void getAllByBooker_shouldCallFindAllByBookerIdAndEndBeforeIncludingArchive() {
         service.getAllByBooker(1L, "PAST", null);
         verify(repo)
-                .findAllByBookerIdAndEndBeforeOrderByStartDesc(anyLong(), any(), any());
+                .findAllByBookerIdAndEndBeforeIncludingArchive(anyLong(), any(), any());
     }
 
     @Test
@@ -76,17 +88,17 @@ class BookingServiceTest {
     }
 
     @Test
-    void getAllByBooker_shouldCallFindAllByBookerIdAndStatusOrderByStartDescWithStatusWaiting() {
+    void getAllByBooker_shouldCallFindAllByBookerIdAndStatusIncludingArchiveWithStatusWaiting() {
         service.getAllByBooker(1L, "WAITING", null);
         verify(repo)
-                .findAllByBookerIdAndStatusOrderByStartDesc(1, BookingStatus.WAITING, null);
+                .findAllByBookerIdAndStatusIncludingArchive(1L, "WAITING", null);
     }
 
     @Test
-    void getAllByBooker_shouldCallFindAllByBookerIdAndStatusOrderByStartDescWithStatusRejected() {
+    void getAllByBooker_shouldCallFindAllByBookerIdAndStatusIncludingArchiveWithStatusRejected() {
         service.getAllByBooker(1L, "REJECTED", null);
         verify(repo)
-                .findAllByBookerIdAndStatusOrderByStartDesc(1L, BookingStatus.REJECTED, null);
+                .findAllByBookerIdAndStatusIncludingArchive(1L, "REJECTED", null);
     }
 
     @Test
@@ -95,9 +107,9 @@ class BookingServiceTest {
     }
 
     @Test
-    void getAllByOwner_shouldCallFindAllByItemOwnerIdOrderByStartDesc() {
+    void getAllByOwner_shouldCallFindAllByItemOwnerIdIncludingArchive() {
         service.getAllByOwner(1L, "ALL", null);
-        verify(repo).findAllByItemOwnerIdOrderByStartDesc(anyLong(), any());
+        verify(repo).findAllByItemOwnerIdIncludingArchive(anyLong(), any());
     }
 
     @Test
@@ -108,10 +120,10 @@ class BookingServiceTest {
     }
 
     @Test
-    void getAllByOwner_shouldCallFindAllByItemOwnerIdAndEndBeforeOrderByStartDesc() {
+    void getAllByOwner_shouldCallFindAllByItemOwnerIdAndEndBeforeIncludingArchive() {
         service.getAllByOwner(1L, "PAST", null);
         verify(repo)
-                .findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(anyLong(), any(), any());
+                .findAllByItemOwnerIdAndEndBeforeIncludingArchive(anyLong(), any(), any());
     }
 
     @Test
@@ -122,17 +134,17 @@ class BookingServiceTest {
     }
 
     @Test
-    void getAllByOwner_shouldCallFindAllByItemOwnerIdAndStatusOrderByStartDescWithStatusWaiting() {
+    void getAllByOwner_shouldCallFindAllByItemOwnerIdAndStatusIncludingArchiveWithStatusWaiting() {
         service.getAllByOwner(1L, "WAITING", null);
         verify(repo)
-                .findAllByItemOwnerIdAndStatusOrderByStartDesc(1, BookingStatus.WAITING, null);
+                .findAllByItemOwnerIdAndStatusIncludingArchive(1L, "WAITING", null);
     }
 
     @Test
-    void getAllByOwner_shouldCallFindAllByItemOwnerIdAndStatusOrderByStartDescWithStatusRejected() {
+    void getAllByOwner_shouldCallFindAllByItemOwnerIdAndStatusIncludingArchiveWithStatusRejected() {
         service.getAllByOwner(1L, "REJECTED", null);
         verify(repo)
-                .findAllByItemOwnerIdAndStatusOrderByStartDesc(1, BookingStatus.REJECTED, null);
+                .findAllByItemOwnerIdAndStatusIncludingArchive(1L, "REJECTED", null);
     }
 
     @Test
@@ -250,7 +262,7 @@ class BookingServiceTest {
         long itemId = 1L;
         User user = TestUtils.makeUser(userId);
         Item item = TestUtils.makeItem(itemId, true, user);
-        Booking booking = new Booking(bookingId, LocalDateTime.now(), LocalDateTime.now(), item, user, BookingStatus.WAITING);
+        Booking booking = new Booking(bookingId, LocalDateTime.now(), LocalDateTime.now(), item, user, BookingStatus.WAITING, 0L);
 
         when(repo.findById(bookingId)).thenReturn(Optional.of(booking));
 
@@ -264,7 +276,7 @@ class BookingServiceTest {
         long itemId = 1L;
         User user = TestUtils.makeUser(userId);
         Item item = TestUtils.makeItem(itemId, true, user);
-        Booking booking = new Booking(bookingId, LocalDateTime.now(), LocalDateTime.now(), item, user, BookingStatus.APPROVED);
+        Booking booking = new Booking(bookingId, LocalDateTime.now(), LocalDateTime.now(), item, user, BookingStatus.APPROVED, 0L);
 
         when(repo.findById(bookingId)).thenReturn(Optional.of(booking));
 
@@ -278,7 +290,7 @@ class BookingServiceTest {
         long itemId = 1L;
         User user = TestUtils.makeUser(userId);
         Item item = TestUtils.makeItem(itemId, true, user);
-        Booking booking = new Booking(bookingId, LocalDateTime.now(), LocalDateTime.now(), item, user, BookingStatus.WAITING);
+        Booking booking = new Booking(bookingId, LocalDateTime.now(), LocalDateTime.now(), item, user, BookingStatus.WAITING, 0L);
 
         when(repo.findById(bookingId)).thenReturn(Optional.of(booking));
         when(repo.save(any())).thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
@@ -286,6 +298,21 @@ class BookingServiceTest {
         booking = service.update(bookingId, userId, true);
 
         assertThat(booking.getStatus()).isEqualTo(BookingStatus.APPROVED);
+        verify(countsCache).evict(userId, userId);
+        verify(occupancyJob).recordApproved(booking);
+    }
+
+    @Test
+    void getCountsByOwner_shouldCountThroughCache() {
+        long ownerId = 1L;
+        BookingCountsDto counts = new BookingCountsDto(6, 1, 2, 3, 1, 1);
+
+        when(countsCache.get(eq(BookingCountsCache.OWNER), eq(ownerId), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<BookingCountsDto>>getArgument(2).get());
+        when(repo.countStatesByItemOwnerId(eq(ownerId), any())).thenReturn(counts);
+
+        assertThat(service.getCountsByOwner(ownerId)).isEqualTo(counts);
+        verify(userService).getById(ownerId);
     }
 
     @Test
@@ -306,7 +333,7 @@ class BookingServiceTest {
 
         User user = TestUtils.makeUser(userId);
         Item item = TestUtils.makeItem(itemId, true, user);
-        Booking booking = new Booking(bookingId, LocalDateTime.now(), LocalDateTime.now(), item, user, BookingStatus.WAITING);
+        Booking booking = new Booking(bookingId, LocalDateTime.now(), LocalDateTime.now(), item, user, BookingStatus.WAITING, 0L);
 
         when(repo.findById(bookingId)).thenReturn(Optional.of(booking));
 
@@ -321,10 +348,40 @@ class BookingServiceTest {
 
         User user = TestUtils.makeUser(userId);
         Item item = TestUtils.makeItem(itemId, true, user);
-        Booking booking = new Booking(bookingId, LocalDateTime.now(), LocalDateTime.now(), item, user, BookingStatus.WAITING);
+        Booking booking = new Booking(bookingId, LocalDateTime.now(), LocalDateTime.now(), item, user, BookingStatus.WAITING, 0L);
 
         when(repo.findById(bookingId)).thenReturn(Optional.of(booking));
 
         assertThat(service.getById(bookingId, userId)).isEqualTo(booking);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllById_shouldSkipBookingsOfOtherUsersAndKeepRequestedOrder() {
+        User owner = TestUtils.makeUser(1L);
+        User booker = TestUtils.makeUser(2L);
+        Item item = TestUtils.makeItem(1L, true, owner);
+        Booking own = new Booking(1L, LocalDateTime.now(), LocalDateTime.now(), item, booker, BookingStatus.WAITING, 0L);
+        Booking foreign = new Booking(2L, LocalDateTime.now(), LocalDateTime.now(),
+                TestUtils.makeItem(2L, true, TestUtils.makeUser(3L)), TestUtils.makeUser(4L),
+                BookingStatus.WAITING, 0L);
+        Booking archived = new Booking(3L, LocalDateTime.now(), LocalDateTime.now(), item, booker,
+                BookingStatus.APPROVED, 0L);
+
+        when(repo.findAllByIdIn(List.of(3L, 2L, 1L))).thenReturn(List.of(own, foreign));
+        when(repo.findArchivedByIdIn(List.of(3L))).thenReturn(List.of(archived));
+
+        assertThat(service.getAllById(List.of(3L, 2L, 1L, 3L), booker.getId()))
+                .extracting(Booking::getId)
+                .containsExactly(3L, 1L);
+    }
+
+    @Test
+    void getAllById_shouldRejectTooManyIds() {
+        List<Long> ids = LongStream.rangeClosed(1, MultiGet.MAX_IDS + 1)
+                .boxed()
+                .collect(Collectors.toList());
+
+        assertThatThrownBy(() -> service.getAllById(ids, 1L)).isInstanceOf(FieldValidationException.class);
+        verifyNoInteractions(repo);
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BookingTimelineTest {
+    static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 15, 12, 0);
+
+    @Test
+    void findNext_shouldReturnEarliestFutureNotRejectedBooking() {
+        Booking rejected = makeBooking(1L, NOW.plusHours(1), NOW.plusHours(2), BookingStatus.REJECTED);
+        Booking later = makeBooking(2L, NOW.plusDays(2), NOW.plusDays(3), BookingStatus.APPROVED);
+        Booking next = makeBooking(3L, NOW.plusDays(1), NOW.plusDays(2), BookingStatus.WAITING);
+        Booking past = makeBooking(4L, NOW.minusDays(2), NOW.minusDays(1), BookingStatus.APPROVED);
+
+        assertThat(BookingTimeline.findNext(List.of(rejected, later, next, past), NOW)).isSameAs(next);
+    }
+
+    @Test
+    void findLast_shouldReturnLatestStartedBooking() {
+        Booking past = makeBooking(1L, NOW.minusDays(3), NOW.minusDays(2), BookingStatus.APPROVED);
+        Booking current = makeBooking(2L, NOW.minusHours(1), NOW.plusHours(1), BookingStatus.APPROVED);
+        Booking future = makeBooking(3L, NOW.plusDays(1), NOW.plusDays(2), BookingStatus.APPROVED);
+
+        assertThat(BookingTimeline.findLast(List.of(past, current, future), NOW)).isSameAs(current);
+    }
+
+    @Test
+    void findNextAndLast_shouldReturnNullForEmptyList() {
+        assertThat(BookingTimeline.findNext(Collections.emptyList(), NOW)).isNull();
+        assertThat(BookingTimeline.findLast(Collections.emptyList(), NOW)).isNull();
+    }
+
+    @Test
+    void hasOverlap_shouldDetectIntersectingInterval() {
+        List<Booking> bookings = List.of(makeBooking(1L, NOW, NOW.plusDays(1), BookingStatus.APPROVED));
+
+        assertThat(BookingTimeline.hasOverlap(bookings, NOW.plusHours(12), NOW.plusDays(2))).isTrue();
+        assertThat(BookingTimeline.hasOverlap(bookings, NOW.plusDays(1), NOW.plusDays(2))).isTrue();
+        assertThat(BookingTimeline.hasOverlap(bookings, NOW.plusDays(2), NOW.plusDays(3))).isFalse();
+        assertThat(BookingTimeline.hasOverlap(bookings, NOW.minusDays(2), NOW.minusDays(1))).isFalse();
+    }
+
+    private Booking makeBooking(long id, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return Booking.builder()
+                .id(id)
+                .start(start)
+                .end(end)
+                .status(status)
+                .build();
+    }
+}
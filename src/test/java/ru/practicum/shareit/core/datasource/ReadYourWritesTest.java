@@ -0,0 +1,41 @@
+package ru.practicum.shareit.core.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesTest {
+    final AtomicLong now = new AtomicLong();
+    final ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), 2, now::get);
+
+    @Test
+    void wroteRecently_shouldExpireAfterWindow() {
+        readYourWrites.recordWrite(1L);
+
+        assertThat(readYourWrites.wroteRecently(1L)).isTrue();
+        assertThat(readYourWrites.wroteRecently(2L)).isFalse();
+        assertThat(readYourWrites.wroteRecently(null)).isFalse();
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+
+        assertThat(readYourWrites.wroteRecently(1L)).isFalse();
+    }
+
+    @Test
+    void recordWrite_shouldSendEveryoneToPrimaryWhenTrackingOverflows() {
+        readYourWrites.recordWrite(1L);
+        readYourWrites.recordWrite(2L);
+        readYourWrites.recordWrite(3L);
+
+        assertThat(readYourWrites.wroteRecently(1L)).isTrue();
+        assertThat(readYourWrites.wroteRecently(42L)).isTrue();
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+
+        assertThat(readYourWrites.wroteRecently(42L)).isFalse();
+    }
+}
@@ -0,0 +1,130 @@
+package ru.practicum.shareit.core.datasource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.core.exception.ExceptionsHandler;
+import ru.practicum.shareit.item.ItemController;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.UpdateItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.dto.CreateUserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.utils.TestUtils;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "shareit.datasource.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "shareit.datasource.replica.username=sa",
+        "shareit.datasource.replica.password=password",
+        "shareit.datasource.replica.driver-class-name=org.h2.Driver",
+        "shareit.datasource.replica.read-your-writes-window=1m"
+})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ReplicaRoutingIntegrationTest {
+    static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    ItemController itemController;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    RoutingContextInterceptor routingContextInterceptor;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    DataSource replicaDataSource;
+
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setMockMvc() {
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(itemController)
+                .setControllerAdvice(ExceptionsHandler.class)
+                .addInterceptors(routingContextInterceptor)
+                .build();
+    }
+
+    @Test
+    void getRequests_shouldReadFromReplicaUnlessUserHasJustWritten() throws Exception {
+        User owner = userService.create(new CreateUserDto("owner", "routing-owner@test.test"));
+        User viewer = userService.create(new CreateUserDto("viewer", "routing-viewer@test.test"));
+        ItemDto item = itemService.create(owner.getId(), TestUtils.makeCreateItemDto(true, null));
+
+        replicate();
+        new JdbcTemplate(replicaDataSource).update("update item set name = 'Replica name' where item_id = ?",
+                item.getId());
+
+        mockMvc.perform(get("/items/" + item.getId()).header(USER_ID_HEADER, viewer.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Replica name"))
+                .andExpect(header().doesNotExist("ETag"));
+
+        mockMvc.perform(patch("/items/" + item.getId())
+                        .header(USER_ID_HEADER, owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateItemDto("Primary name", null, null))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/items/" + item.getId()).header(USER_ID_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Primary name"));
+
+        mockMvc.perform(get("/items/" + item.getId()).header(USER_ID_HEADER, viewer.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Replica name"));
+    }
+
+    @Test
+    void writes_shouldAlwaysGoToPrimary() {
+        User owner = userService.create(new CreateUserDto("owner", "routing-writer@test.test"));
+
+        Long primaryCount = new JdbcTemplate(primaryDataSource).queryForObject(
+                "select count(*) from users where user_id = ?", Long.class, owner.getId());
+
+        assertThat(primaryCount).isEqualTo(1L);
+    }
+
+    /**
+     * Stands in for replication: copies schema and data of the primary H2 database to the replica.
+     */
+    private void replicate() {
+        List<String> script = new JdbcTemplate(primaryDataSource).queryForList("SCRIPT", String.class);
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("DROP ALL OBJECTS");
+        script.stream()
+                .filter(statement -> !statement.startsWith("--"))
+                .forEach(replica::execute);
+    }
+}
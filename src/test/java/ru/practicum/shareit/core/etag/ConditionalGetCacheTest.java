@@ -0,0 +1,76 @@
+package ru.practicum.shareit.core.etag;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.item.Item;
+
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ConditionalGetCacheTest {
+    static final String RESOURCE = "item:1";
+    static final List<String> COMPONENTS = List.of(EntityVersions.key(Item.class, 1L));
+
+    final EntityVersions versions = new EntityVersions();
+    final ConditionalGetCache cache = new ConditionalGetCache(versions);
+
+    @Test
+    void respond_shouldOmitEtagWhenVersionIsUnknown() {
+        ResponseEntity<String> response = cache.respond(RESOURCE, COMPONENTS, viewer -> true, 1L, null, "body");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isNull();
+    }
+
+    @Test
+    void checkNotModified_shouldMatchCachedEtagWithoutLoading() {
+        versions.record(COMPONENTS.get(0), 3L);
+        String etag = cache.respond(RESOURCE, COMPONENTS, viewer -> true, 1L, null, "body")
+                .getHeaders()
+                .getETag();
+
+        assertThat(etag).isNotNull();
+        assertThat(cache.<String>checkNotModified(RESOURCE, 2L, etag))
+                .hasValueSatisfying(response -> assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED));
+        assertThat(cache.<String>checkNotModified(RESOURCE, 2L, "\"other\", W/" + etag)).isPresent();
+    }
+
+    @Test
+    void checkNotModified_shouldMissAfterVersionChange() {
+        versions.record(COMPONENTS.get(0), 3L);
+        String etag = cache.respond(RESOURCE, COMPONENTS, viewer -> true, 1L, null, "body")
+                .getHeaders()
+                .getETag();
+
+        versions.record(COMPONENTS.get(0), 4L);
+
+        assertThat(cache.<String>checkNotModified(RESOURCE, 1L, etag)).isEmpty();
+    }
+
+    @Test
+    void checkNotModified_shouldMissForDeletedEntity() {
+        versions.record(COMPONENTS.get(0), 3L);
+        String etag = cache.respond(RESOURCE, COMPONENTS, viewer -> true, 1L, null, "body")
+                .getHeaders()
+                .getETag();
+
+        versions.markDeleted(COMPONENTS.get(0));
+        versions.record(COMPONENTS.get(0), 3L);
+
+        assertThat(cache.<String>checkNotModified(RESOURCE, 1L, etag)).isEmpty();
+    }
+
+    @Test
+    void checkNotModified_shouldRespectViewerRule() {
+        versions.record(COMPONENTS.get(0), 3L);
+        String etag = cache.respond(RESOURCE, COMPONENTS, viewer -> !Objects.equals(viewer, 7L), 1L, null, "body")
+                .getHeaders()
+                .getETag();
+
+        assertThat(cache.<String>checkNotModified(RESOURCE, 7L, etag)).isEmpty();
+        assertThat(cache.<String>checkNotModified(RESOURCE, null, etag)).isPresent();
+    }
+}
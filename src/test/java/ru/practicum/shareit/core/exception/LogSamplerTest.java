@@ -0,0 +1,38 @@
+package ru.practicum.shareit.core.exception;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogSamplerTest {
+    final AtomicLong now = new AtomicLong();
+    final LogSampler sampler = new LogSampler(Duration.ofSeconds(1), now::get);
+
+    @Test
+    void sample_shouldLetThroughOneEventPerIntervalAndCountDropped() {
+        assertThat(sampler.sample("NotFoundException")).isZero();
+        assertThat(sampler.sample("NotFoundException")).isEqualTo(LogSampler.DROPPED);
+        assertThat(sampler.sample("NotFoundException")).isEqualTo(LogSampler.DROPPED);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertThat(sampler.sample("NotFoundException")).isEqualTo(2);
+    }
+
+    @Test
+    void sample_shouldTrackCategoriesSeparately() {
+        assertThat(sampler.sample("NotFoundException")).isZero();
+        assertThat(sampler.sample("FieldValidationException")).isZero();
+    }
+
+    @Test
+    void domainException_shouldNotCaptureStackTrace() {
+        assertThat(new NotFoundException("item", 1L).getStackTrace()).isEmpty();
+        assertThat(new FieldValidationException("itemId", "Item with this id is unavailable").getStackTrace())
+                .isEmpty();
+    }
+}
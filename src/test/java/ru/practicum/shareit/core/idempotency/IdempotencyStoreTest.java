@@ -0,0 +1,108 @@
+package ru.practicum.shareit.core.idempotency;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.core.exception.FieldValidationException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class IdempotencyStoreTest {
+    final IdempotencyStore store = new IdempotencyStore();
+
+    @Test
+    void execute_shouldRunEveryTimeWithoutKey() {
+        AtomicInteger calls = new AtomicInteger();
+
+        store.execute("booking", 1L, null, "payload", calls::incrementAndGet);
+        store.execute("booking", 1L, null, "payload", calls::incrementAndGet);
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void execute_shouldReplayStoredResponse() {
+        AtomicInteger calls = new AtomicInteger();
+
+        Integer first = store.execute("booking", 1L, "key", "payload", calls::incrementAndGet);
+        Integer second = store.execute("booking", 1L, "key", "payload", calls::incrementAndGet);
+
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isEqualTo(1);
+    }
+
+    @Test
+    void execute_shouldScopeKeysByUserAndEndpoint() {
+        AtomicInteger calls = new AtomicInteger();
+
+        store.execute("booking", 1L, "key", "payload", calls::incrementAndGet);
+        store.execute("booking", 2L, "key", "payload", calls::incrementAndGet);
+        store.execute("item", 1L, "key", "payload", calls::incrementAndGet);
+
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void execute_shouldRejectDifferentPayload() {
+        store.execute("booking", 1L, "key", "payload", () -> 1);
+
+        assertThatThrownBy(() -> store.execute("booking", 1L, "key", "other", () -> 2))
+                .isInstanceOf(FieldValidationException.class);
+    }
+
+    @Test
+    void execute_shouldNotRememberFailures() {
+        assertThatThrownBy(() -> store.execute("booking", 1L, "key", "payload", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(store.execute("booking", 1L, "key", "payload", () -> 2)).isEqualTo(2);
+    }
+
+    @Test
+    void execute_shouldWaitForInFlightRequest() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() ->
+                store.execute("booking", 1L, "key", "payload", () -> {
+                    started.countDown();
+                    await(release);
+                    return calls.incrementAndGet();
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Integer> second = CompletableFuture.supplyAsync(() ->
+                store.execute("booking", 1L, "key", "payload", calls::incrementAndGet));
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void execute_shouldEvictOldestFinishedKeyWhenFull() {
+        IdempotencyStore small = new IdempotencyStore(2);
+        AtomicInteger calls = new AtomicInteger();
+
+        small.execute("booking", 1L, "first", "payload", calls::incrementAndGet);
+        small.execute("booking", 1L, "second", "payload", calls::incrementAndGet);
+        small.execute("booking", 1L, "third", "payload", calls::incrementAndGet);
+
+        assertThat(small.execute("booking", 1L, "second", "payload", calls::incrementAndGet)).isEqualTo(2);
+        assertThat(small.execute("booking", 1L, "first", "payload", calls::incrementAndGet)).isEqualTo(4);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
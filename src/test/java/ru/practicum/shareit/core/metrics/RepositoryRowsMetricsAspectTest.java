@@ -0,0 +1,108 @@
+package ru.practicum.shareit.core.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserJpaRepository;
+import ru.practicum.shareit.user.dto.CreateUserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+class RepositoryRowsMetricsAspectTest {
+    UserService userService;
+    MeterRegistry meterRegistry;
+
+    @Test
+    void shouldRecordRowsPerRepositoryMethod() {
+        User user = userService.create(new CreateUserDto("metrics", "metrics@test.test"));
+
+        userService.getById(user.getId());
+
+        DistributionSummary summary = meterRegistry.find(RepositoryRowsMetricsAspect.METRIC_NAME)
+                .tag("repository", "UserJpaRepository")
+                .tag("method", "findById")
+                .summary();
+
+        assertThat(summary).isNotNull();
+        assertThat(summary.count()).isPositive();
+        assertThat(summary.max()).isEqualTo(1.0);
+    }
+
+    @Test
+    void recordRows_shouldCountElementsOfCollectionsAndSlices() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        RepositoryRowsMetricsAspect aspect = new RepositoryRowsMetricsAspect(registry);
+
+        aspect.recordRows(joinPoint("findAllByOwnerId"), List.of(new User(), new User()));
+        aspect.recordRows(joinPoint("findSlice"), new SliceImpl<>(List.of(new User(), new User(), new User())));
+
+        assertThat(summary(registry, "findAllByOwnerId").totalAmount()).isEqualTo(2.0);
+        assertThat(summary(registry, "findSlice").totalAmount()).isEqualTo(3.0);
+    }
+
+    @Test
+    void recordRows_shouldCountOptionalsAndEntitiesAsAtMostOneRow() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        RepositoryRowsMetricsAspect aspect = new RepositoryRowsMetricsAspect(registry);
+
+        aspect.recordRows(joinPoint("findById"), Optional.empty());
+        aspect.recordRows(joinPoint("findById"), Optional.of(new User()));
+        aspect.recordRows(joinPoint("save"), new User());
+
+        assertThat(summary(registry, "findById").count()).isEqualTo(2);
+        assertThat(summary(registry, "findById").totalAmount()).isEqualTo(1.0);
+        assertThat(summary(registry, "save").totalAmount()).isEqualTo(1.0);
+    }
+
+    @Test
+    void recordRows_shouldSkipFlagsCountsUpdatesAndStreams() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        RepositoryRowsMetricsAspect aspect = new RepositoryRowsMetricsAspect(registry);
+
+        aspect.recordRows(joinPoint("existsById"), false);
+        aspect.recordRows(joinPoint("count"), 42L);
+        aspect.recordRows(joinPoint("updateNames"), 7);
+        aspect.recordRows(joinPoint("incrementCommentStats"), null);
+        aspect.recordRows(joinPoint("streamAll"), Stream.of(new User()));
+
+        assertThat(registry.find(RepositoryRowsMetricsAspect.METRIC_NAME).summaries()).isEmpty();
+    }
+
+    private static JoinPoint joinPoint(String method) {
+        Signature signature = mock(Signature.class);
+        when(signature.getName()).thenReturn(method);
+        JoinPoint joinPoint = mock(JoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getThis()).thenReturn(mock(UserJpaRepository.class));
+        return joinPoint;
+    }
+
+    private static DistributionSummary summary(MeterRegistry registry, String method) {
+        return registry.get(RepositoryRowsMetricsAspect.METRIC_NAME)
+                .tag("repository", "UserJpaRepository")
+                .tag("method", method)
+                .summary();
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.core.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RateLimitInterceptorTest {
+    static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    RateLimitProperties properties;
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setMockMvc() {
+        RateLimitProperties.Limit search = new RateLimitProperties.Limit();
+        search.setCapacity(1);
+        search.setRefillPerSecond(0.5);
+
+        properties = new RateLimitProperties();
+        properties.getLimits().put("search", search);
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new TestController())
+                .addInterceptors(new RateLimitInterceptor(properties, new RateLimiter(properties)))
+                .build();
+    }
+
+    @Test
+    void preHandle_shouldAnswerTooManyRequestsWithRetryAfter() throws Exception {
+        mockMvc.perform(get("/limited").header(USER_ID_HEADER, 1))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/limited").header(USER_ID_HEADER, 1))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"));
+
+        mockMvc.perform(get("/limited").header(USER_ID_HEADER, 2))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void preHandle_shouldKeepAnonymousCallersApartByRemoteAddress() throws Exception {
+        mockMvc.perform(get("/limited").with(remoteAddress("10.0.0.1")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/limited").header(USER_ID_HEADER, "abc").with(remoteAddress("10.0.0.1")))
+                .andExpect(status().isTooManyRequests());
+
+        mockMvc.perform(get("/limited").with(remoteAddress("10.0.0.2")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/limited").header(USER_ID_HEADER, 1).with(remoteAddress("10.0.0.1")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void preHandle_shouldSkipHandlersWithoutAnnotation() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/unlimited").header(USER_ID_HEADER, 1))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void preHandle_shouldSkipWhenDisabled() throws Exception {
+        properties.setEnabled(false);
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/limited").header(USER_ID_HEADER, 1))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    private static RequestPostProcessor remoteAddress(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+    @RestController
+    static class TestController {
+        @GetMapping("/limited")
+        @RateLimited("search")
+        public String limited() {
+            return "ok";
+        }
+
+        @GetMapping("/unlimited")
+        public String unlimited() {
+            return "ok";
+        }
+    }
+}
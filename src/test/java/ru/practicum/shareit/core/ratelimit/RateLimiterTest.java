@@ -0,0 +1,97 @@
+package ru.practicum.shareit.core.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+    final AtomicLong now = new AtomicLong();
+    RateLimitProperties properties;
+    RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Limit search = new RateLimitProperties.Limit();
+        search.setCapacity(2);
+        search.setRefillPerSecond(1);
+
+        properties = new RateLimitProperties();
+        properties.getLimits().put("search", search);
+        properties.setMaxBuckets(3);
+        rateLimiter = new RateLimiter(properties, now::get);
+    }
+
+    @Test
+    void tryAcquire_shouldThrottleAfterBurstAndRefillOverTime() {
+        assertThat(rateLimiter.tryAcquire("search", "1")).isZero();
+        assertThat(rateLimiter.tryAcquire("search", "1")).isZero();
+        assertThat(rateLimiter.tryAcquire("search", "1")).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(rateLimiter.tryAcquire("search", "1")).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(rateLimiter.tryAcquire("search", "1")).isZero();
+    }
+
+    @Test
+    void tryAcquire_shouldKeepSeparateBucketsPerUserAndEndpoint() {
+        rateLimiter.tryAcquire("search", "1");
+        rateLimiter.tryAcquire("search", "1");
+
+        assertThat(rateLimiter.tryAcquire("search", "1")).isPositive();
+        assertThat(rateLimiter.tryAcquire("search", "2")).isZero();
+        assertThat(rateLimiter.tryAcquire("bookings", "1")).isZero();
+    }
+
+    @Test
+    void tryAcquire_shouldNotGrowPastMaxBuckets() {
+        for (long userId = 0; userId < 10; userId++) {
+            rateLimiter.tryAcquire("search", String.valueOf(userId));
+        }
+
+        assertThat(rateLimiter.size()).isLessThanOrEqualTo(properties.getMaxBuckets());
+    }
+
+    @Test
+    void tryAcquire_shouldEvictFullBucketsBeforeThrottledOnes() {
+        rateLimiter.tryAcquire("search", "1");
+        rateLimiter.tryAcquire("search", "1");
+        rateLimiter.tryAcquire("search", "2");
+        rateLimiter.tryAcquire("search", "3");
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        rateLimiter.tryAcquire("search", "4");
+        rateLimiter.tryAcquire("search", "5");
+
+        assertThat(rateLimiter.size()).isEqualTo(properties.getMaxBuckets());
+        assertThat(rateLimiter.tryAcquire("search", "1")).isZero();
+        assertThat(rateLimiter.tryAcquire("search", "1")).isPositive();
+    }
+
+    @Test
+    void tryAcquire_shouldNotGrantMoreThanCapacityUnderContention() throws InterruptedException {
+        int threads = 8;
+        AtomicLong granted = new AtomicLong();
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(() -> {
+                for (int j = 0; j < 100; j++) {
+                    if (rateLimiter.tryAcquire("search", "1") == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertThat(granted).hasValue(2);
+    }
+}
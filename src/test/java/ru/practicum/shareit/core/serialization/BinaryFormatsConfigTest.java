@@ -0,0 +1,55 @@
+package ru.practicum.shareit.core.serialization;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.User;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BinaryFormatsConfigTest {
+    static final LocalDateTime LAST_COMMENT_AT = LocalDateTime.of(2024, 1, 15, 12, 0);
+
+    final BinaryFormatsConfig config = new BinaryFormatsConfig();
+    final List<ItemDto> items = List.of(new ItemDto(1L, "drill", "Cordless drill", true,
+            User.builder().id(2L).name("owner").email("owner@test.test").build(),
+            null, null, List.of(), null, 3L, LAST_COMMENT_AT));
+
+    @Test
+    void cborConverter_shouldWriteSameFieldsAsJson() throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        config.cborHttpMessageConverter(jsonBuilder())
+                .write(items, List.class, MediaType.valueOf("application/cbor"), output);
+
+        JsonNode written = new ObjectMapper(new CBORFactory()).readTree(output.getBodyAsBytes());
+        assertThat(written.toString()).isEqualTo(jsonBuilder().build().writeValueAsString(items));
+    }
+
+    @Test
+    void smileConverter_shouldWriteSameFieldsAsJson() throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        config.smileHttpMessageConverter(jsonBuilder())
+                .write(items, List.class, MediaType.valueOf("application/x-jackson-smile"), output);
+
+        JsonNode written = new ObjectMapper(new SmileFactory()).readTree(output.getBodyAsBytes());
+        assertThat(written.toString()).isEqualTo(jsonBuilder().build().writeValueAsString(items));
+        assertThat(written.get(0).get("lastCommentAt").asText()).isEqualTo("2024-01-15T12:00:00");
+    }
+
+    private static Jackson2ObjectMapperBuilder jsonBuilder() {
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
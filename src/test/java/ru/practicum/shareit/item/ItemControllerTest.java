@@ -15,16 +15,22 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.core.etag.ConditionalGetCache;
+import ru.practicum.shareit.core.etag.EntityVersions;
 import ru.practicum.shareit.core.exception.ExceptionsHandler;
 import ru.practicum.shareit.core.exception.NotFoundException;
+import ru.practicum.shareit.core.idempotency.IdempotencyStore;
 import ru.practicum.shareit.utils.TestUtils;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.dto.CreateCommentDto;
 import ru.practicum.shareit.item.dto.CreateItemDto;
+import ru.practicum.shareit.item.dto.DailyOccupancyDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.UpdateItemDto;
+import ru.practicum.shareit.item.service.ItemAnalyticsService;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -36,21 +42,32 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @ExtendWith(MockitoExtension.class)
 class ItemControllerTest {
     static final String USER_ID_HEADER = "X-Sharer-User-Id";
-    final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    @Spy
+    ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
     MockMvc mockMvc;
 
     @Mock
     ItemService itemService;
 
+    @Mock
+    ItemAnalyticsService analyticsService;
+
     @Spy
     ItemMapper itemMapper = Mappers.getMapper(ItemMapper.class);
 
+    @Spy
+    ConditionalGetCache conditionalGetCache = new ConditionalGetCache(new EntityVersions());
+
+    @Spy
+    IdempotencyStore idempotencyStore = new IdempotencyStore();
+
     @InjectMocks
     ItemController itemController;
 
@@ -108,6 +125,35 @@ class ItemControllerTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(items)));
     }
 
+    @Test
+    void getByUserId_shouldReturnRequestedFieldsOnly() throws Exception {
+        long userId = 1L;
+        ItemFields fields = ItemFields.parse("id,name,available");
+        List<ItemDto> items = List.of(itemMapper.toItemDto(TestUtils.makeItem(1L, true, null)));
+
+        when(itemService.getByUserId(eq(userId), any(), eq(fields))).thenReturn(items);
+
+        mockMvc.perform(get("/items")
+                        .header(USER_ID_HEADER, userId)
+                        .queryParam("fields", "id,name,available"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].available").value(true))
+                .andExpect(jsonPath("$[0].name").exists())
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].comments").doesNotExist());
+    }
+
+    @Test
+    void search_shouldReturnBadRequestForUnknownField() throws Exception {
+        mockMvc.perform(get("/items/search")
+                        .queryParam("text", "test")
+                        .queryParam("fields", "name,price"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(itemService);
+    }
+
     @Test
     void getById_shouldReturnItem() throws Exception {
         long itemId = 1L;
@@ -151,6 +197,54 @@ class ItemControllerTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(item)));
     }
 
+    @Test
+    void create_shouldReplayResponseForRepeatedIdempotencyKey() throws Exception {
+        long userId = 1L;
+        ItemDto item = itemMapper.toItemDto(TestUtils.makeItem(1L, true, null));
+        CreateItemDto dto = TestUtils.makeCreateItemDto(true, null);
+        String json = objectMapper.writeValueAsString(dto);
+
+        when(itemService.create(userId, dto)).thenReturn(item);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/items")
+                            .header(USER_ID_HEADER, userId)
+                            .header(IdempotencyStore.HEADER, "retry-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(json))
+                    .andExpect(status().isCreated())
+                    .andExpect(content().json(objectMapper.writeValueAsString(item)));
+        }
+
+        verify(itemService, times(1)).create(userId, dto);
+    }
+
+    @Test
+    void create_shouldRejectIdempotencyKeyReusedWithOtherPayload() throws Exception {
+        long userId = 1L;
+        CreateItemDto dto = TestUtils.makeCreateItemDto(true, null);
+        CreateItemDto otherDto = TestUtils.makeCreateItemDto(false, null);
+        ItemDto item = itemMapper.toItemDto(TestUtils.makeItem(1L, true, null));
+
+        when(itemService.create(userId, dto)).thenReturn(item);
+
+        mockMvc.perform(post("/items")
+                        .header(USER_ID_HEADER, userId)
+                        .header(IdempotencyStore.HEADER, "retry-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/items")
+                        .header(USER_ID_HEADER, userId)
+                        .header(IdempotencyStore.HEADER, "retry-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(otherDto)))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).create(userId, otherDto);
+    }
+
     @Test
     void update_shouldUpdateItem() throws Exception {
         long itemId = 1L;
@@ -210,6 +304,25 @@ class ItemControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void getComments_shouldReturnPageOfComments() throws Exception {
+        long itemId = 1L;
+        List<CommentDto> comments = List.of(CommentDto.builder()
+                .id(4L)
+                .authorName("test name")
+                .text("comment")
+                .created(LocalDateTime.now())
+                .build());
+
+        when(itemService.getComments(itemId, 5L, 1)).thenReturn(comments);
+
+        mockMvc.perform(get("/items/" + itemId + "/comments")
+                        .queryParam("cursor", "5")
+                        .queryParam("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(comments)));
+    }
+
     @Test
     void comment_shouldReturnNotFound() throws Exception {
         long itemId = 1L;
@@ -232,4 +345,22 @@ class ItemControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().json(objectMapper.writeValueAsString(comment)));
     }
+
+    @Test
+    void getDailyOccupancy_shouldPassRangeToService() throws Exception {
+        LocalDate from = LocalDate.of(2024, 3, 1);
+        LocalDate to = LocalDate.of(2024, 3, 2);
+        when(analyticsService.getDailyOccupancy(1L, 2L, from, to)).thenReturn(List.of(
+                new DailyOccupancyDto(from, 720, 1, 50.0),
+                new DailyOccupancyDto(to, 0, 0, 0)));
+
+        mockMvc.perform(get("/items/1/utilization")
+                        .header(USER_ID_HEADER, 2L)
+                        .queryParam("from", "2024-03-01")
+                        .queryParam("to", "2024-03-02"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookedMinutes").value(720))
+                .andExpect(jsonPath("$[0].occupancy").value(50.0))
+                .andExpect(jsonPath("$[1].bookedMinutes").value(0));
+    }
 }
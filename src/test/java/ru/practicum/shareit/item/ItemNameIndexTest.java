@@ -0,0 +1,117 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.utils.TestUtils;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ItemNameIndexTest {
+    final ItemAutocompleteProperties properties = new ItemAutocompleteProperties();
+    final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    final ItemNameIndex index = new ItemNameIndex(jdbcTemplate, properties, Runnable::run);
+
+    @BeforeEach
+    void load() {
+        index.load();
+    }
+
+    @Test
+    void find_shouldMatchWordPrefixesIgnoringCase() {
+        index.update(makeItem(1L, "Cordless Drill", true));
+        index.update(makeItem(2L, "drill bits", true));
+        index.update(makeItem(3L, "Hammer", true));
+
+        assertThat(index.find(" DRI", 10).orElseThrow())
+                .extracting(ItemSuggestionDto::getId)
+                .containsExactly(1L, 2L);
+        assertThat(index.find("cord", 10).orElseThrow()).containsExactly(new ItemSuggestionDto(1L, "Cordless Drill"));
+        assertThat(index.find("dr", 1).orElseThrow()).hasSize(1);
+    }
+
+    @Test
+    void find_shouldMatchAfterSpacesAndOrderByFirstMatchingWordThenId() {
+        index.update(makeItem(10L, "Rope", true));
+        index.update(makeItem(9L, "Rope", true));
+        index.update(makeItem(3L, "Long rope ladder", true));
+        index.update(makeItem(4L, "Rope-ladder", true));
+
+        assertThat(index.find("rope", 10).orElseThrow())
+                .extracting(ItemSuggestionDto::getId)
+                .containsExactly(9L, 10L, 3L, 4L);
+        assertThat(index.find("lad", 10).orElseThrow())
+                .extracting(ItemSuggestionDto::getId)
+                .containsExactly(3L);
+    }
+
+    @Test
+    void update_shouldFollowRenamesAndAvailability() {
+        index.update(makeItem(1L, "Drill", true));
+        index.update(makeItem(1L, "Saw", true));
+        index.update(makeItem(2L, "Ladder", true));
+        index.update(makeItem(2L, "Ladder", false));
+
+        assertThat(index.find("dr", 10).orElseThrow()).isEmpty();
+        assertThat(index.find("saw", 10).orElseThrow()).extracting(ItemSuggestionDto::getId).containsExactly(1L);
+        assertThat(index.find("lad", 10).orElseThrow()).isEmpty();
+
+        index.delete(1L);
+
+        assertThat(index.find("s", 10).orElseThrow()).isEmpty();
+    }
+
+    @Test
+    void find_shouldDeferToDatabaseOnceFull() {
+        properties.setMaxEntries(2);
+
+        index.update(makeItem(1L, "Drill", true));
+        index.update(makeItem(2L, "Cordless drill", true));
+
+        assertThat(index.find("dr", 10)).isEmpty();
+    }
+
+    @Test
+    void delete_shouldReloadFullIndexOnceItShrinks() throws Exception {
+        properties.setMaxEntries(3);
+        index.update(makeItem(1L, "Drill", true));
+        index.update(makeItem(2L, "Cordless drill", true));
+        index.update(makeItem(3L, "Drill press", true));
+        assertThat(index.find("dr", 10)).isEmpty();
+
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("item_id")).thenReturn(1L, 3L);
+        when(rs.getString("name")).thenReturn("Drill", "Drill press");
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(rs);
+            handler.processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        index.delete(2L);
+
+        assertThat(index.find("dr", 10).orElseThrow())
+                .extracting(ItemSuggestionDto::getId)
+                .containsExactly(1L, 3L);
+    }
+
+    @Test
+    void find_shouldDeferToDatabaseUntilLoaded() {
+        ItemNameIndex notLoaded = new ItemNameIndex(jdbcTemplate, properties, Runnable::run);
+
+        assertThat(notLoaded.find("dr", 10)).isEmpty();
+    }
+
+    private static Item makeItem(long id, String name, boolean available) {
+        Item item = TestUtils.makeItem(id, available, null);
+        item.setName(name);
+        return item;
+    }
+}
@@ -0,0 +1,122 @@
+package ru.practicum.shareit.item;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingArchiveJob;
+import ru.practicum.shareit.booking.BookingJpaRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.dto.DailyOccupancyDto;
+import ru.practicum.shareit.item.dto.ItemUtilizationDto;
+import ru.practicum.shareit.item.service.ItemAnalyticsService;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.dto.CreateUserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.utils.TestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+class ItemOccupancyJobTest {
+    static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    ItemOccupancyJob occupancyJob;
+    ItemAnalyticsService analyticsService;
+    BookingArchiveJob archiveJob;
+    BookingService bookingService;
+    BookingJpaRepository bookingRepo;
+    ItemJpaRepository itemRepo;
+    ItemService itemService;
+    UserService userService;
+
+    @Test
+    void approval_shouldBeAddedToDailyAggregates() {
+        User owner = userService.create(new CreateUserDto("owner", "occupancy-owner@test.test"));
+        User booker = userService.create(new CreateUserDto("booker", "occupancy-booker@test.test"));
+        Item item = createItem(owner);
+        Booking booking = bookingRepo.save(makeBooking(item, booker, DAY.atTime(20, 0), DAY.plusDays(1).atTime(8, 0),
+                BookingStatus.WAITING));
+
+        bookingService.update(booking.getId(), owner.getId(), true);
+
+        List<DailyOccupancyDto> days = analyticsService.getDailyOccupancy(item.getId(), owner.getId(),
+                DAY, DAY.plusDays(2));
+        assertThat(days).extracting(DailyOccupancyDto::getBookedMinutes).containsExactly(240L, 480L, 0L);
+        assertThat(days).extracting(DailyOccupancyDto::getBookingsStarted).containsExactly(1L, 0L, 0L);
+        assertThat(days.get(1).getOccupancy()).isEqualTo(33.33);
+    }
+
+    @Test
+    void approval_shouldNotBeCountedTwiceWhenRebuildRanBeforeIt() {
+        User owner = userService.create(new CreateUserDto("owner", "occupancy-twice-owner@test.test"));
+        User booker = userService.create(new CreateUserDto("booker", "occupancy-twice-booker@test.test"));
+        Item item = createItem(owner);
+        bookingRepo.save(makeBooking(item, booker, DAY.atTime(8, 0), DAY.atTime(10, 0), BookingStatus.APPROVED));
+        Booking booking = bookingRepo.save(makeBooking(item, booker, DAY.atTime(20, 0), DAY.plusDays(1).atTime(8, 0),
+                BookingStatus.APPROVED));
+
+        // the nightly rebuild ran between the approval commit and its deferred recording
+        occupancyJob.rebuild(List.of(item.getId()));
+        occupancyJob.recordApproved(booking);
+        occupancyJob.recordApproved(booking);
+
+        List<DailyOccupancyDto> days = analyticsService.getDailyOccupancy(item.getId(), owner.getId(),
+                DAY, DAY.plusDays(2));
+        assertThat(days).extracting(DailyOccupancyDto::getBookedMinutes).containsExactly(360L, 480L, 0L);
+        assertThat(days).extracting(DailyOccupancyDto::getBookingsStarted).containsExactly(2L, 0L, 0L);
+    }
+
+    @Test
+    void rebuild_shouldCountApprovedLiveAndArchivedBookings() {
+        User owner = userService.create(new CreateUserDto("owner", "occupancy-rebuild-owner@test.test"));
+        User booker = userService.create(new CreateUserDto("booker", "occupancy-rebuild-booker@test.test"));
+        Item item = createItem(owner);
+        Item idle = createItem(owner);
+        bookingRepo.save(makeBooking(item, booker, DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay(),
+                BookingStatus.APPROVED));
+        bookingRepo.save(makeBooking(item, booker, DAY.plusDays(1).atTime(12, 0), DAY.plusDays(1).atTime(18, 0),
+                BookingStatus.APPROVED));
+        bookingRepo.save(makeBooking(item, booker, DAY.plusDays(2).atStartOfDay(), DAY.plusDays(3).atStartOfDay(),
+                BookingStatus.REJECTED));
+        archiveJob.archiveEndedBefore(DAY.plusDays(1).atTime(1, 0));
+
+        occupancyJob.rebuild(List.of(item.getId(), idle.getId()));
+
+        List<ItemUtilizationDto> utilization = analyticsService.getUtilizationByOwner(owner.getId(),
+                DAY, DAY.plusDays(3));
+        assertThat(utilization).extracting(ItemUtilizationDto::getItemId).containsExactly(item.getId(), idle.getId());
+        assertThat(utilization.get(0).getBookedMinutes()).isEqualTo(1440L + 360L);
+        assertThat(utilization.get(0).getBookings()).isEqualTo(2L);
+        assertThat(utilization.get(0).getOccupancy()).isEqualTo(31.25);
+        assertThat(utilization.get(1).getBookedMinutes()).isZero();
+    }
+
+    private Item createItem(User owner) {
+        long itemId = itemService.create(owner.getId(), TestUtils.makeCreateItemDto(true, null)).getId();
+        return itemRepo.findById(itemId).orElseThrow();
+    }
+
+    private Booking makeBooking(Item item, User booker, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return Booking.builder()
+                .start(start)
+                .end(end)
+                .item(item)
+                .booker(booker)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ItemOccupancyTest {
+    @Test
+    void minutesByDay_shouldSplitPeriodAtMidnight() {
+        Map<LocalDate, Long> minutes = ItemOccupancy.minutesByDay(
+                LocalDateTime.of(2024, 3, 1, 20, 0), LocalDateTime.of(2024, 3, 3, 6, 30));
+
+        assertThat(minutes).containsExactly(
+                entry(LocalDate.of(2024, 3, 1), 240L),
+                entry(LocalDate.of(2024, 3, 2), 1440L),
+                entry(LocalDate.of(2024, 3, 3), 390L));
+    }
+
+    @Test
+    void minutesByDay_shouldBeEmptyForEndBeforeStart() {
+        assertThat(ItemOccupancy.minutesByDay(
+                LocalDateTime.of(2024, 3, 2, 0, 0), LocalDateTime.of(2024, 3, 1, 0, 0))).isEmpty();
+    }
+
+    @Test
+    void percent_shouldRoundAndCapAtFullRange() {
+        assertThat(ItemOccupancy.percent(480, 1)).isEqualTo(33.33);
+        assertThat(ItemOccupancy.percent(3000, 2)).isEqualTo(100.0);
+        assertThat(ItemOccupancy.percent(0, 0)).isEqualTo(0.0);
+    }
+}
@@ -14,6 +14,7 @@ import ru.practicum.shareit.user.UserJpaRepository;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -46,9 +47,9 @@ class ItemRepositoryTest {
         User user = TestUtils.makeUser(1);
         userRepository.save(user);
 
-        Item item1 = new Item(1L, "abc name", "description 1", true, user, null, null, null, null);
-        Item item2 = new Item(2L, "name 2", "abc description", true, user, null, null, null, null);
-        Item item3 = new Item(3L, "bla bla bla", "bla bla bla", true, user, null, null, null, null);
+        Item item1 = new Item(1L, "abc name", "description 1", true, user, null, 0L, null, 0L, null, null, null);
+        Item item2 = new Item(2L, "name 2", "abc description", true, user, null, 0L, null, 0L, null, null, null);
+        Item item3 = new Item(3L, "bla bla bla", "bla bla bla", true, user, null, 0L, null, 0L, null, null, null);
 
         Assertions.assertThat(query.setParameter(1, "aBc").getResultList()).isEmpty();
 
@@ -58,4 +59,20 @@ class ItemRepositoryTest {
 
         assertThat(itemRepository.findAllByText("aBc", null)).hasSize(2);
     }
+
+    @Test
+    void incrementCommentStats_shouldNotMoveLastCommentAtBack() {
+        User user = userRepository.save(TestUtils.makeUser(1));
+        Item item = itemRepository.save(
+                new Item(null, "name", "description", true, user, null, 0L, null, 0L, null, null, null));
+        LocalDateTime created = LocalDateTime.of(2024, 1, 15, 12, 0);
+
+        itemRepository.incrementCommentStats(item.getId(), created);
+        itemRepository.incrementCommentStats(item.getId(), created.minusMinutes(1));
+        em.clear();
+
+        Item updated = itemRepository.findById(item.getId()).orElseThrow();
+        assertThat(updated.getCommentCount()).isEqualTo(2);
+        assertThat(updated.getLastCommentAt()).isEqualTo(created);
+    }
 }
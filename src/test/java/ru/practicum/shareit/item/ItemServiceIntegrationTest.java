@@ -7,14 +7,33 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingJpaRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.comment.Comment;
+import ru.practicum.shareit.comment.CommentJpaRepository;
+import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.comment.dto.CreateCommentDto;
+import ru.practicum.shareit.utils.ConnectionBudget;
+import ru.practicum.shareit.utils.StatementBudget;
 import ru.practicum.shareit.utils.TestUtils;
 import ru.practicum.shareit.item.dto.CreateItemDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.dto.UpdateItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserJpaRepository;
 import ru.practicum.shareit.user.dto.CreateUserDto;
+import ru.practicum.shareit.user.dto.UpdateUserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
@@ -25,7 +44,14 @@ import static org.assertj.core.api.Assertions.*;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 class ItemServiceIntegrationTest {
     ItemService itemService;
+    ItemController itemController;
     UserService userService;
+    ItemJpaRepository itemRepo;
+    BookingJpaRepository bookingRepo;
+    CommentJpaRepository commentRepo;
+    UserJpaRepository userRepo;
+    EntityManagerFactory entityManagerFactory;
+    PlatformTransactionManager transactionManager;
 
     @Test
     void shouldCreateItemsAndGetByUserId() {
@@ -44,4 +70,153 @@ class ItemServiceIntegrationTest {
 
         assertThat(items).hasSize(3);
     }
+
+    @Test
+    void itemEndpoints_shouldStayWithinStatementBudget() throws Exception {
+        User owner = userService.create(new CreateUserDto("owner", "budget-owner@test.test"));
+        User booker = userService.create(new CreateUserDto("booker", "budget-booker@test.test"));
+        List<Item> items = List.of(
+                createItemWithHistory(owner, booker),
+                createItemWithHistory(owner, booker),
+                createItemWithHistory(owner, booker)
+        );
+        long itemId = items.get(0).getId();
+
+        List<ItemDto> ownItems = StatementBudget.assertWithin(entityManagerFactory, 4,
+                () -> itemService.getByUserId(owner.getId(), null));
+        ItemDto item = StatementBudget.assertWithin(entityManagerFactory, 3,
+                () -> itemService.getById(itemId, owner.getId()));
+        StatementBudget.assertWithin(entityManagerFactory, 1,
+                () -> itemService.searchByText("budget", null));
+        List<ItemDto> sparseItems = StatementBudget.assertWithin(entityManagerFactory, 1,
+                () -> itemService.getByUserId(owner.getId(), null, ItemFields.parse("name,available")));
+        StatementBudget.assertWithin(entityManagerFactory, 2,
+                () -> itemService.getComments(itemId, null, 10));
+        // items, the owner's bookings, the latest comments and one batch of their authors, as for the owner's list
+        List<ItemDto> byIds = StatementBudget.assertWithin(entityManagerFactory, 4,
+                () -> itemService.getAllById(List.of(items.get(2).getId(), itemId), owner.getId()));
+
+        assertThat(ownItems).hasSize(3);
+        assertThat(sparseItems).extracting(ItemDto::getName).containsOnly("budget item");
+        assertThat(sparseItems).extracting(ItemDto::getOwner).containsOnlyNulls();
+        assertThat(item.getLastBooking()).isNotNull();
+        assertThat(item.getNextBooking()).isNotNull();
+        assertThat(item.getComments()).hasSize(1);
+        assertThat(byIds).extracting(ItemDto::getId).containsExactly(items.get(2).getId(), itemId);
+        assertThat(byIds).extracting(ItemDto::getLastBooking).doesNotContainNull();
+    }
+
+    @Test
+    void useCases_shouldCheckOutOneConnectionEach() throws Exception {
+        User owner = userService.create(new CreateUserDto("owner", "connection-owner@test.test"));
+        User booker = userService.create(new CreateUserDto("booker", "connection-booker@test.test"));
+        long itemId = createItemWithHistory(owner, booker).getId();
+
+        ConnectionBudget.assertWithin(entityManagerFactory, 1, () -> itemService.getByUserId(owner.getId(), null));
+        ConnectionBudget.assertWithin(entityManagerFactory, 1, () -> itemService.getById(itemId, owner.getId()));
+        ConnectionBudget.assertWithin(entityManagerFactory, 1,
+                () -> itemService.create(owner.getId(), TestUtils.makeCreateItemDto(true, null)));
+        ConnectionBudget.assertWithin(entityManagerFactory, 1,
+                () -> itemService.update(itemId, owner.getId(), new UpdateItemDto("renamed", null, null)));
+        ConnectionBudget.assertWithin(entityManagerFactory, 1,
+                () -> itemService.comment(itemId, booker.getId(), new CreateCommentDto("Great")));
+        ConnectionBudget.assertWithin(entityManagerFactory, 1,
+                () -> userService.update(booker.getId(), new UpdateUserDto("renamed", null)));
+    }
+
+    @Test
+    void autocomplete_shouldAnswerFromMemoryAndFollowRenames() throws Exception {
+        User owner = userService.create(new CreateUserDto("owner", "autocomplete-owner@test.test"));
+        long itemId = itemService.create(owner.getId(), CreateItemDto.builder()
+                .name("Zyxwa cordless drill")
+                .description("Autocomplete item")
+                .available(true)
+                .build()).getId();
+
+        List<ItemSuggestionDto> suggestions = StatementBudget.assertWithin(entityManagerFactory, 0,
+                () -> itemService.autocomplete("zyxw", 10));
+        assertThat(suggestions).containsExactly(new ItemSuggestionDto(itemId, "Zyxwa cordless drill"));
+
+        itemService.update(itemId, owner.getId(), new UpdateItemDto("Qwzyx saw", null, false));
+
+        assertThat(itemService.autocomplete("zyxw", 10)).isEmpty();
+        assertThat(itemService.autocomplete("qwzyx", 10)).isEmpty();
+    }
+
+    @Test
+    void getById_shouldNotAnswerNotModifiedAfterOwnerOrAuthorIsRenamed() {
+        User owner = userService.create(new CreateUserDto("owner", "etag-owner@test.test"));
+        User booker = userService.create(new CreateUserDto("booker", "etag-booker@test.test"));
+        long itemId = createItemWithHistory(owner, booker).getId();
+
+        String etag = itemController.getById(itemId, booker.getId(), null).getHeaders().getETag();
+        assertThat(etag).isNotNull();
+        assertThat(itemController.getById(itemId, booker.getId(), etag).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        userService.update(owner.getId(), new UpdateUserDto("renamed owner", null));
+        ResponseEntity<ItemDto> afterOwnerRename = itemController.getById(itemId, booker.getId(), etag);
+        assertThat(afterOwnerRename.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(afterOwnerRename.getBody().getOwner().getName()).isEqualTo("renamed owner");
+
+        etag = afterOwnerRename.getHeaders().getETag();
+        userService.update(booker.getId(), new UpdateUserDto("renamed booker", null));
+        ResponseEntity<ItemDto> afterAuthorRename = itemController.getById(itemId, booker.getId(), etag);
+        assertThat(afterAuthorRename.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(afterAuthorRename.getBody().getComments())
+                .extracting(CommentDto::getAuthorName)
+                .containsOnly("renamed booker");
+    }
+
+    @Test
+    void getById_shouldIgnoreVersionsOfRolledBackUpdates() {
+        User owner = userService.create(new CreateUserDto("owner", "rollback-owner@test.test"));
+        User booker = userService.create(new CreateUserDto("booker", "rollback-booker@test.test"));
+        long itemId = createItemWithHistory(owner, booker).getId();
+        String etag = itemController.getById(itemId, booker.getId(), null).getHeaders().getETag();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userService.update(owner.getId(), new UpdateUserDto("rolled back owner", null));
+            userRepo.flush();
+            status.setRollbackOnly();
+        });
+        assertThat(itemController.getById(itemId, booker.getId(), etag).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        userService.update(owner.getId(), new UpdateUserDto("renamed owner", null));
+        ResponseEntity<ItemDto> afterRename = itemController.getById(itemId, booker.getId(), etag);
+        assertThat(afterRename.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(afterRename.getBody().getOwner().getName()).isEqualTo("renamed owner");
+    }
+
+    private Item createItemWithHistory(User owner, User booker) {
+        CreateItemDto dto = CreateItemDto.builder()
+                .name("budget item")
+                .description("Item with bookings and comments")
+                .available(true)
+                .build();
+        Item item = itemRepo.findById(itemService.create(owner.getId(), dto).getId()).orElseThrow();
+        LocalDateTime now = LocalDateTime.now();
+
+        bookingRepo.save(makeBooking(item, booker, now.minusDays(3), now.minusDays(2)));
+        bookingRepo.save(makeBooking(item, booker, now.plusDays(2), now.plusDays(3)));
+        commentRepo.save(Comment.builder()
+                .text("Nice")
+                .item(item)
+                .author(booker)
+                .created(now.minusDays(1))
+                .build());
+
+        return item;
+    }
+
+    private Booking makeBooking(Item item, User booker, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .start(start)
+                .end(end)
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.APPROVED)
+                .build();
+    }
 }
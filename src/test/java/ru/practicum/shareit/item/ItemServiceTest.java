@@ -9,19 +9,23 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.core.etag.EntityVersions;
 import ru.practicum.shareit.core.exception.FieldValidationException;
 import ru.practicum.shareit.core.exception.NotFoundException;
 import ru.practicum.shareit.utils.TestUtils;
-import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingJpaRepository;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.comment.Comment;
 import ru.practicum.shareit.comment.CommentMapper;
 import ru.practicum.shareit.comment.CommentJpaRepository;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.dto.CreateCommentDto;
 import ru.practicum.shareit.item.dto.CreateItemDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.dto.UpdateItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.Request;
@@ -55,6 +59,12 @@ class ItemServiceTest {
     @Mock
     UserService userService;
 
+    @Mock
+    EntityVersions entityVersions;
+
+    @Mock
+    ItemNameIndex nameIndex;
+
     @Spy
     ItemMapper mapper = Mappers.getMapper(ItemMapper.class);
 
@@ -115,6 +125,7 @@ class ItemServiceTest {
         assertThat(itemDto.getAvailable()).isTrue();
         assertThat(itemDto.getComments()).isNull();
         assertThat(itemDto.getOwner()).isEqualTo(user);
+        verify(requestRepo).incrementVersion(requestId);
     }
 
     @Test
@@ -206,22 +217,23 @@ class ItemServiceTest {
 
         when(userService.getById(userId)).thenReturn(user);
         when(repo.findById(itemId)).thenReturn(Optional.of(item));
-        when(bookingRepo.findAllByBookerIdAndEndBeforeOrderByStartDesc(
-                anyLong(), any(), any()
-        )).thenReturn(Collections.emptyList());
+        when(bookingRepo.existsByBookerIdAndItemIdAndStatusAndEndBefore(
+                eq(userId), eq(itemId), eq(BookingStatus.APPROVED), any()
+        )).thenReturn(false);
         when(commentRepo.save(any())).thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
 
         assertThatThrownBy(() -> service.comment(itemId, userId, createCommentDto))
                 .isInstanceOf(FieldValidationException.class);
 
-        when(bookingRepo.findAllByBookerIdAndEndBeforeOrderByStartDesc(anyLong(), any(), any()
-        )).thenReturn(List.of(
-                new Booking(1L, LocalDateTime.now(), LocalDateTime.now(), item, user, BookingStatus.APPROVED)));
+        when(bookingRepo.existsByBookerIdAndItemIdAndStatusAndEndBefore(
+                eq(userId), eq(itemId), eq(BookingStatus.APPROVED), any()
+        )).thenReturn(true);
 
         CommentDto commentDto = service.comment(itemId, userId, createCommentDto);
         assertThat(commentDto.getAuthorName()).isEqualTo(user.getName());
         assertThat(commentDto.getId()).isEqualTo(0L);
         assertThat(commentDto.getText()).isEqualTo("new comment");
+        verify(repo).incrementCommentStats(eq(itemId), any());
     }
 
     @Test
@@ -235,10 +247,10 @@ class ItemServiceTest {
         verify(repo, times(1)).delete(item);
 
         when(repo.findById(itemId)).thenReturn(Optional.of(item));
-        when(repo.save(any())).thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
         ItemDto itemDto = service.delete(itemId);
 
         assertThat(itemDto.getId().equals(itemId));
+        verify(bookingRepo).deleteArchivedByItemId(itemId);
     }
 
     @Test
@@ -250,11 +262,36 @@ class ItemServiceTest {
 
         when(repo.findById(anyLong())).thenReturn(Optional.of(item));
         when(bookingRepo.findAllByItemIdOrderByStartAsc(anyLong())).thenReturn(Collections.emptyList());
-        when(commentRepo.findAllByItemId(anyLong())).thenReturn(Collections.emptyList());
+        when(commentRepo.findAllByItemIdOrderByIdDesc(anyLong(), any())).thenReturn(Collections.emptyList());
 
         assertThat(service.getById(itemId, userId)).isEqualTo(mapper.toItemDto(item));
     }
 
+    @Test
+    void getComments_shouldThrowNotFoundExceptionIfItemIsNotExists() {
+        when(repo.existsById(1L)).thenReturn(false);
+
+        assertThatThrownBy(() -> service.getComments(1L, null, 10)).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void getComments_shouldReturnCommentsBeforeCursor() {
+        long itemId = 1L;
+        User user = TestUtils.makeUser(1L);
+        Item item = TestUtils.makeItem(itemId, true, user);
+        Comment comment = new Comment(5L, "comment", item, user, LocalDateTime.now());
+
+        when(repo.existsById(itemId)).thenReturn(true);
+        when(commentRepo.findAllByItemIdAndIdLessThanOrderByIdDesc(eq(itemId), eq(6L), any()))
+                .thenReturn(List.of(comment));
+
+        List<CommentDto> comments = service.getComments(itemId, 6L, 10);
+
+        assertThat(comments).hasSize(1);
+        assertThat(comments.get(0).getId()).isEqualTo(5L);
+        verify(commentRepo, never()).findAllByItemIdOrderByIdDesc(anyLong(), any());
+    }
+
     @Test
     void getByUserId_should() {
         User user = TestUtils.makeUser(1L);
@@ -266,4 +303,73 @@ class ItemServiceTest {
         assertThat(service.getByUserId(1L, null)).hasAtLeastOneElementOfType(ItemDto.class);
 
     }
+
+    @Test
+    void getByUserId_shouldSkipCommentsAndBookingsOutsideFieldset() {
+        ItemFields fields = ItemFields.parse("name,available");
+        Item item = Item.builder().id(1L).name("name").available(true).build();
+
+        when(repo.findProjectionsByOwnerId(1L, fields, null)).thenReturn(List.of(item));
+
+        List<ItemDto> items = service.getByUserId(1L, null, fields);
+
+        assertThat(items).extracting(ItemDto::getName).containsExactly("name");
+        verify(repo, never()).findAllByOwnerId(anyLong(), any());
+        verifyNoInteractions(commentRepo, bookingRepo);
+    }
+
+    @Test
+    void searchByText_shouldReadProjectionForFieldset() {
+        ItemFields fields = ItemFields.parse("id,name");
+        Item item = Item.builder().id(1L).name("drill").build();
+
+        when(repo.findProjectionsByText("drill", fields, null)).thenReturn(List.of(item));
+
+        assertThat(service.searchByText("drill", null, fields)).extracting(ItemDto::getId).containsExactly(1L);
+        verify(repo, never()).findAllByText(anyString(), any());
+    }
+
+    @Test
+    void getAllById_shouldAddBookingsOnlyToItemsOfViewer() {
+        User owner = TestUtils.makeUser(1L);
+        Item own = TestUtils.makeItem(1L, true, owner);
+        Item foreign = TestUtils.makeItem(2L, true, TestUtils.makeUser(2L));
+        Booking last = new Booking(5L, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1), own,
+                TestUtils.makeUser(3L), BookingStatus.APPROVED, 0L);
+
+        when(repo.findAllByIdIn(List.of(2L, 1L))).thenReturn(List.of(own, foreign));
+        when(bookingRepo.findAllByItemIdIn(List.of(1L))).thenReturn(List.of(last));
+        when(commentRepo.findLatestByItemIds(anyCollection(), anyInt())).thenReturn(Collections.emptyList());
+
+        List<ItemDto> items = service.getAllById(List.of(2L, 1L), owner.getId());
+
+        assertThat(items).extracting(ItemDto::getId).containsExactly(2L, 1L);
+        assertThat(items.get(0).getLastBooking()).isNull();
+        assertThat(items.get(1).getLastBooking().getId()).isEqualTo(5L);
+        assertThat(items.get(1).getComments()).isEmpty();
+    }
+
+    @Test
+    void autocomplete_shouldAnswerFromIndex() {
+        List<ItemSuggestionDto> suggestions = List.of(new ItemSuggestionDto(1L, "Drill"));
+        when(nameIndex.find("dr", 5)).thenReturn(Optional.of(suggestions));
+
+        assertThat(service.autocomplete("dr", 5)).isEqualTo(suggestions);
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void autocomplete_shouldFallBackToDatabaseWithEscapedPrefix() {
+        when(nameIndex.find(" 50%_ ", 5)).thenReturn(Optional.empty());
+
+        service.autocomplete(" 50%_ ", 5);
+
+        verify(repo).findSuggestions("50\\%\\_", "50%_", PageRequest.of(0, 5));
+    }
+
+    @Test
+    void autocomplete_shouldReturnEmptyListForBlankPrefix() {
+        assertThat(service.autocomplete(" ", 5)).isEmpty();
+        verifyNoInteractions(nameIndex);
+    }
 }
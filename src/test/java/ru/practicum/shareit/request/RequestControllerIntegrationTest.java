@@ -0,0 +1,108 @@
+package ru.practicum.shareit.request;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.core.exception.ExceptionsHandler;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.CreateRequestDto;
+import ru.practicum.shareit.request.dto.RequestDto;
+import ru.practicum.shareit.request.service.RequestService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.dto.CreateUserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.utils.StatementBudget;
+import ru.practicum.shareit.utils.TestUtils;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class RequestControllerIntegrationTest {
+    static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    MockMvc mockMvc;
+    final RequestController requestController;
+    final RequestService requestService;
+    final ItemService itemService;
+    final UserService userService;
+    final EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setMockMvc() {
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(requestController)
+                .setControllerAdvice(ExceptionsHandler.class)
+                .build();
+    }
+
+    @Test
+    void getEndpoints_shouldStayWithinStatementBudget() throws Exception {
+        User requester = userService.create(new CreateUserDto("requester", "request-budget-requester@test.test"));
+        User owner = userService.create(new CreateUserDto("owner", "request-budget-owner@test.test"));
+
+        RequestDto request = requestService.createRequest(new CreateRequestDto("Need a drill"), requester.getId());
+        RequestDto otherRequest = requestService.createRequest(new CreateRequestDto("Need a saw"), requester.getId());
+        itemService.create(owner.getId(), TestUtils.makeCreateItemDto(true, request.getId()));
+        itemService.create(owner.getId(), TestUtils.makeCreateItemDto(true, otherRequest.getId()));
+
+        StatementBudget.assertWithin(entityManagerFactory, 3, () -> mockMvc.perform(get("/requests")
+                        .header(USER_ID_HEADER, requester.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2))));
+
+        StatementBudget.assertWithin(entityManagerFactory, 3, () -> mockMvc.perform(get("/requests/all")
+                        .header(USER_ID_HEADER, owner.getId())
+                        .queryParam("from", "0")
+                        .queryParam("size", "20"))
+                .andExpect(status().isOk()));
+
+        StatementBudget.assertWithin(entityManagerFactory, 3, () -> mockMvc.perform(get("/requests/" + request.getId())
+                        .header(USER_ID_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1))));
+    }
+
+    @Test
+    void getById_shouldNotAnswerNotModifiedAfterItemIsAdded() throws Exception {
+        User requester = userService.create(new CreateUserDto("requester", "request-etag-requester@test.test"));
+        User owner = userService.create(new CreateUserDto("owner", "request-etag-owner@test.test"));
+        RequestDto request = requestService.createRequest(new CreateRequestDto("Need a ladder"), requester.getId());
+
+        String etag = mockMvc.perform(get("/requests/" + request.getId())
+                        .header(USER_ID_HEADER, requester.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        itemService.create(owner.getId(), TestUtils.makeCreateItemDto(true, request.getId()));
+        // loading the request elsewhere records its version again
+        mockMvc.perform(get("/requests/all")
+                        .header(USER_ID_HEADER, owner.getId()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/requests/" + request.getId())
+                        .header(USER_ID_HEADER, requester.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)));
+    }
+}
@@ -9,10 +9,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.core.etag.ConditionalGetCache;
+import ru.practicum.shareit.core.etag.EntityVersions;
 import ru.practicum.shareit.core.exception.ExceptionsHandler;
 import ru.practicum.shareit.core.exception.NotFoundException;
 import ru.practicum.shareit.utils.TestUtils;
@@ -38,6 +41,9 @@ class RequestControllerTest {
     @Mock
     RequestService requestService;
 
+    @Spy
+    ConditionalGetCache conditionalGetCache = new ConditionalGetCache(new EntityVersions());
+
     @InjectMocks
     RequestController requestController;
 
@@ -104,6 +110,7 @@ class RequestControllerTest {
         long userId = 1L;
         long requestId = 1L;
         RequestDto request = TestUtils.makeRequestDto(requestId);
+        request.setItems(List.of());
 
         when(requestService.getById(requestId, userId)).thenReturn(request);
 
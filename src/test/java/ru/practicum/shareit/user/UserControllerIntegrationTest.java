@@ -18,7 +18,12 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ru.practicum.shareit.core.exception.ExceptionsHandler;
 import ru.practicum.shareit.user.dto.CreateUserDto;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.utils.StatementBudget;
 
+import javax.persistence.EntityManagerFactory;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -32,6 +37,8 @@ class UserControllerIntegrationTest {
     final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
     MockMvc mockMvc;
     final UserController userController;
+    final UserService userService;
+    final EntityManagerFactory entityManagerFactory;
 
     @BeforeEach
     void setMockMvc() {
@@ -62,4 +69,17 @@ class UserControllerIntegrationTest {
                         .content(objectMapper.writeValueAsString(updateUserDto)))
                 .andExpect(status().isConflict());
     }
+
+    @Test
+    void getEndpoints_shouldStayWithinStatementBudget() throws Exception {
+        User user = userService.create(new CreateUserDto("budget", "user-budget@test.test"));
+        userService.create(new CreateUserDto("budget", "user-budget2@test.test"));
+
+        StatementBudget.assertWithin(entityManagerFactory, 1, () -> mockMvc.perform(get("/users/" + user.getId()))
+                .andExpect(status().isOk()));
+
+        StatementBudget.assertWithin(entityManagerFactory, 1, () -> mockMvc.perform(get("/users")
+                        .queryParam("size", "10"))
+                .andExpect(status().isOk()));
+    }
 }
@@ -16,6 +16,8 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ru.practicum.shareit.core.exception.ExceptionsHandler;
 import ru.practicum.shareit.core.exception.NotFoundException;
 import ru.practicum.shareit.utils.TestUtils;
+import ru.practicum.shareit.user.dto.BulkCreateUserDto;
+import ru.practicum.shareit.user.dto.BulkUserResultDto;
 import ru.practicum.shareit.user.dto.CreateUserDto;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
 import ru.practicum.shareit.user.service.UserService;
@@ -59,7 +61,7 @@ class UserControllerTest {
                 TestUtils.makeUser(3L)
         );
 
-        when(userService.findAll()).thenReturn(users);
+        when(userService.findAll(0L, 100)).thenReturn(users);
 
         mockMvc.perform(get("/users"))
                 .andExpect(status().isOk())
@@ -70,13 +72,26 @@ class UserControllerTest {
     void getAll_shouldReturnEmptyList() throws Exception {
         List<User> users = Collections.emptyList();
 
-        when(userService.findAll()).thenReturn(users);
+        when(userService.findAll(0L, 100)).thenReturn(users);
 
         mockMvc.perform(get("/users"))
                 .andExpect(status().isOk())
                 .andExpect(content().json(objectMapper.writeValueAsString(users)));
     }
 
+    @Test
+    void getAll_shouldPassKeysetParameters() throws Exception {
+        List<User> users = List.of(TestUtils.makeUser(11L), TestUtils.makeUser(12L));
+
+        when(userService.findAll(10L, 2)).thenReturn(users);
+
+        mockMvc.perform(get("/users")
+                        .queryParam("afterId", "10")
+                        .queryParam("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(users)));
+    }
+
     @Test
     void getById_shouldReturnInternalServerError() throws Exception {
         mockMvc.perform(get("/users/abc"))
@@ -119,6 +134,31 @@ class UserControllerTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(user)));
     }
 
+    @Test
+    void createAll_shouldReturnResultPerRow() throws Exception {
+        User user = TestUtils.makeUser(1L);
+        BulkCreateUserDto dto = new BulkCreateUserDto(List.of(new CreateUserDto(user.getName(), user.getEmail())));
+        List<BulkUserResultDto> results = List.of(BulkUserResultDto.builder().row(0).status(201).user(user).build());
+
+        when(userService.createAll(dto.getUsers())).thenReturn(results);
+
+        mockMvc.perform(post("/users/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(results)));
+    }
+
+    @Test
+    void createAll_shouldReturnBadRequestIfRowIsInvalid() throws Exception {
+        BulkCreateUserDto dto = new BulkCreateUserDto(List.of(new CreateUserDto("name", "not an email")));
+
+        mockMvc.perform(post("/users/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void update_shouldUpdateUser() throws Exception {
         long userId = 1L;
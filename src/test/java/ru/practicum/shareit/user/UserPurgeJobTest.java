@@ -0,0 +1,225 @@
+package ru.practicum.shareit.user;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingArchiveJob;
+import ru.practicum.shareit.booking.BookingJpaRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.comment.dto.CreateCommentDto;
+import ru.practicum.shareit.core.etag.EntityVersions;
+import ru.practicum.shareit.core.exception.ExceptionsHandler;
+import ru.practicum.shareit.core.exception.NotFoundException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemJpaRepository;
+import ru.practicum.shareit.item.ItemOccupancyJob;
+import ru.practicum.shareit.item.dto.CreateItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.Request;
+import ru.practicum.shareit.request.dto.CreateRequestDto;
+import ru.practicum.shareit.request.dto.RequestDto;
+import ru.practicum.shareit.request.service.RequestService;
+import ru.practicum.shareit.user.dto.CreateUserDto;
+import ru.practicum.shareit.user.dto.UserDeletionDto;
+import ru.practicum.shareit.user.service.UserPurgeJob;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.utils.TestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class UserPurgeJobTest {
+    static final Duration PURGE_TIMEOUT = Duration.ofSeconds(10);
+
+    MockMvc mockMvc;
+    final UserController userController;
+    final UserService userService;
+    final UserPurgeJob purgeJob;
+    final ItemService itemService;
+    final ItemJpaRepository itemRepo;
+    final ItemOccupancyJob occupancyJob;
+    final RequestService requestService;
+    final BookingService bookingService;
+    final BookingJpaRepository bookingRepo;
+    final BookingArchiveJob archiveJob;
+    final JdbcTemplate jdbcTemplate;
+    final EntityVersions entityVersions;
+
+    @BeforeEach
+    void setMockMvc() {
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(userController)
+                .setControllerAdvice(ExceptionsHandler.class)
+                .build();
+    }
+
+    @Test
+    void delete_shouldPurgeEverythingOfTheUserAndReportProgress() throws Exception {
+        User user = userService.create(new CreateUserDto("purged", "purge-user@test.test"));
+        User other = userService.create(new CreateUserDto("other", "purge-other@test.test"));
+        long requestId = requestService.createRequest(new CreateRequestDto("Need a tent"), user.getId()).getId();
+        long answerId = itemService.create(other.getId(), TestUtils.makeCreateItemDto(true, requestId)).getId();
+        long ownedId = itemService.create(user.getId(), TestUtils.makeCreateItemDto(true, null)).getId();
+        LocalDateTime now = LocalDateTime.now();
+
+        saveApproved(answerId, user, now.minusYears(3));
+        saveApproved(ownedId, other, now.minusYears(3));
+        archiveJob.archiveEndedBefore(now.minusYears(1));
+        saveApproved(answerId, user, now.minusDays(3));
+        saveApproved(ownedId, other, now.minusDays(3));
+        itemService.comment(answerId, user.getId(), new CreateCommentDto("Good tent"));
+        itemService.comment(ownedId, other.getId(), new CreateCommentDto("Good item"));
+        occupancyJob.rebuild(List.of(answerId));
+        assertThat(count("select count(*) from item_daily_occupancy where item_id = ?", answerId)).isPositive();
+        itemService.getById(answerId, other.getId());
+        assertThat(entityVersions.current(EntityVersions.key(Item.class, answerId))).isNotNull();
+        assertThat(entityVersions.current(EntityVersions.key(User.class, other.getId()))).isNotNull();
+
+        mockMvc.perform(delete("/users/" + user.getId()))
+                .andExpect(status().isOk());
+        awaitPurge(user.getId());
+
+        mockMvc.perform(get("/users/" + user.getId() + "/deletion"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.deletedRows.comments").value(1))
+                .andExpect(jsonPath("$.deletedRows.itemComments").value(1))
+                .andExpect(jsonPath("$.deletedRows.bookings").value(1))
+                .andExpect(jsonPath("$.deletedRows.itemBookings").value(1))
+                .andExpect(jsonPath("$.deletedRows.archivedBookings").value(1))
+                .andExpect(jsonPath("$.deletedRows.itemArchivedBookings").value(1))
+                .andExpect(jsonPath("$.deletedRows.requestLinks").value(1))
+                .andExpect(jsonPath("$.deletedRows.items").value(1))
+                .andExpect(jsonPath("$.deletedRows.requests").value(1));
+
+        assertThat(count("select count(*) from users where user_id = ?", user.getId())).isZero();
+        assertThat(count("select count(*) from item where item_id = ?", ownedId)).isZero();
+        assertThat(count("select count(*) from booking_archive where booker_id = ? or item_id = ?",
+                user.getId(), ownedId)).isZero();
+        assertThat(count("select count(*) from item_daily_occupancy where item_id = ?", answerId)).isZero();
+        assertThat(count("select count(*) from item where item_id = ? and request_id is null " +
+                "and comment_count = 0 and last_comment_at is null", answerId)).isOne();
+        assertThat(userService.getById(other.getId())).isNotNull();
+        assertThat(entityVersions.current(EntityVersions.key(User.class, user.getId()))).isNull();
+        assertThat(entityVersions.current(EntityVersions.key(Item.class, answerId))).isNull();
+        assertThat(entityVersions.current(EntityVersions.key(Request.class, requestId))).isNull();
+        assertThat(entityVersions.current(EntityVersions.key(User.class, other.getId()))).isNotNull();
+    }
+
+    @Test
+    void resumePendingDeletions_shouldFinishPurgeInterruptedByRestart() throws Exception {
+        User user = userService.create(new CreateUserDto("interrupted", "purge-interrupted@test.test"));
+        User other = userService.create(new CreateUserDto("other", "purge-interrupted-other@test.test"));
+        long otherItemId = itemService.create(other.getId(), TestUtils.makeCreateItemDto(true, null)).getId();
+        long ownedId = itemService.create(user.getId(), TestUtils.makeCreateItemDto(true, null)).getId();
+        saveApproved(otherItemId, user, LocalDateTime.now().minusDays(3));
+        itemService.comment(otherItemId, user.getId(), new CreateCommentDto("Worked fine"));
+
+        // the purge stopped after its comment steps, the user is soft deleted and the comments are gone
+        jdbcTemplate.update("update users set deleted = true where user_id = ?", user.getId());
+        jdbcTemplate.update("delete from comment where author_id = ?", user.getId());
+        jdbcTemplate.update("update item set comment_count = 0, last_comment_at = null where item_id = ?",
+                otherItemId);
+
+        purgeJob.resumePendingDeletions();
+        UserDeletionDto progress = awaitPurge(user.getId());
+
+        assertThat(progress.getStatus()).isEqualTo(UserDeletionStatus.COMPLETED);
+        assertThat(progress.getDeletedRows())
+                .containsEntry("comments", 0L)
+                .containsEntry("bookings", 1L)
+                .containsEntry("items", 1L);
+        assertThat(count("select count(*) from users where user_id = ?", user.getId())).isZero();
+        assertThat(count("select count(*) from item where item_id = ?", ownedId)).isZero();
+        assertThat(count("select count(*) from booking where booker_id = ?", user.getId())).isZero();
+        assertThat(count("select count(*) from item where item_id = ?", otherItemId)).isOne();
+    }
+
+    @Test
+    void softDeletedOwner_shouldHideItemsFromEveryReadUntilPurged() {
+        User owner = userService.create(new CreateUserDto("owner", "purge-pending-owner@test.test"));
+        User booker = userService.create(new CreateUserDto("booker", "purge-pending-booker@test.test"));
+        long requestId = requestService.createRequest(new CreateRequestDto("Need a lantern"), booker.getId()).getId();
+        long itemId = itemService.create(owner.getId(), CreateItemDto.builder()
+                .name("Pendingpurge lantern")
+                .description("Lantern of a user being deleted")
+                .available(true)
+                .requestId(requestId)
+                .build()).getId();
+        saveApproved(itemId, booker, LocalDateTime.now().minusDays(3));
+        assertThat(itemService.searchByText("pendingpurge", null)).hasSize(1);
+        assertThat(requestService.getById(requestId, booker.getId()).getItems()).hasSize(1);
+
+        // the flag is set as UserService.delete does, without starting the purge
+        jdbcTemplate.update("update users set deleted = true where user_id = ?", owner.getId());
+
+        assertThat(itemService.searchByText("pendingpurge", null)).isEmpty();
+        assertThatThrownBy(() -> itemService.getById(itemId, booker.getId()))
+                .isInstanceOf(NotFoundException.class);
+        assertThat(itemService.getAllById(List.of(itemId), booker.getId())).isEmpty();
+        assertThatThrownBy(() -> itemService.getComments(itemId, null, 10))
+                .isInstanceOf(NotFoundException.class);
+        assertThat(requestService.getById(requestId, booker.getId()).getItems()).isEmpty();
+        User viewer = userService.create(new CreateUserDto("viewer", "purge-pending-viewer@test.test"));
+        assertThat(requestService.getOtherRequests(viewer.getId(), PageRequest.of(0, 100)))
+                .filteredOn(request -> request.getId() == requestId)
+                .flatExtracting(RequestDto::getItems)
+                .isEmpty();
+        assertThatThrownBy(() -> itemService.comment(itemId, booker.getId(), new CreateCommentDto("Bright")))
+                .isInstanceOf(NotFoundException.class);
+        BookingDto dto = new BookingDto(itemId, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+        assertThatThrownBy(() -> bookingService.create(booker.getId(), dto))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    private void saveApproved(long itemId, User booker, LocalDateTime start) {
+        bookingRepo.save(Booking.builder()
+                .start(start)
+                .end(start.plusDays(1))
+                .item(itemRepo.findById(itemId).orElseThrow())
+                .booker(booker)
+                .status(BookingStatus.APPROVED)
+                .build());
+    }
+
+    private UserDeletionDto awaitPurge(long userId) throws InterruptedException {
+        long deadline = System.nanoTime() + PURGE_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            Optional<UserDeletionDto> progress = purgeJob.getProgress(userId);
+            if (progress.isPresent() && progress.get().getStatus() != UserDeletionStatus.IN_PROGRESS) {
+                return progress.get();
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("User " + userId + " was not purged within " + PURGE_TIMEOUT);
+    }
+
+    private long count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+}
@@ -7,14 +7,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
 import ru.practicum.shareit.core.exception.DuplicatedEmailException;
 import ru.practicum.shareit.core.exception.NotFoundException;
+import ru.practicum.shareit.user.dto.BulkUserResultDto;
+import ru.practicum.shareit.user.dto.CreateUserDto;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
+import ru.practicum.shareit.user.service.UserPurgeJob;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.utils.TestUtils;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -25,6 +35,18 @@ class UserServiceTest {
     @Mock
     private UserJpaRepository repo;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private UserPurgeJob purgeJob;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private UserService service;
 
@@ -95,16 +117,80 @@ class UserServiceTest {
     }
 
     @Test
-    void getAll_shouldReturnListOfUsers() {
+    void getAll_shouldReturnPageOfUsersAfterId() {
         List<User> users = List.of(
-                TestUtils.makeUser(1),
                 TestUtils.makeUser(2),
                 TestUtils.makeUser(3)
         );
 
-        when(repo.findAll()).thenReturn(users);
+        when(repo.findAllByIdGreaterThanAndDeletedFalseOrderByIdAsc(1L, PageRequest.of(0, 2))).thenReturn(users);
+
+        assertThat(service.findAll(1L, 2)).isEqualTo(users);
+    }
+
+    @Test
+    void exportAll_shouldPassEveryUserAndDetachIt() {
+        List<User> users = List.of(
+                TestUtils.makeUser(1),
+                TestUtils.makeUser(2)
+        );
+        List<User> exported = new ArrayList<>();
+
+        when(repo.streamAll()).thenReturn(users.stream());
 
-        assertThat(service.findAll()).isEqualTo(users);
+        service.exportAll(exported::add);
+
+        assertThat(exported).isEqualTo(users);
+        verify(entityManager).detach(users.get(0));
+        verify(entityManager).detach(users.get(1));
+    }
+
+    @Test
+    void createAll_shouldReportDuplicatesPerRowAndInsertTheRest() {
+        User existing = TestUtils.makeUser(1);
+        User created = User.builder().id(2L).name("new name").email("new@test.test").build();
+        List<CreateUserDto> dtos = List.of(
+                new CreateUserDto("new name", "new@test.test"),
+                new CreateUserDto("name", existing.getEmail()),
+                new CreateUserDto("other name", "new@test.test")
+        );
+
+        when(repo.findAllByEmailIn(any()))
+                .thenReturn(List.of(existing))
+                .thenReturn(List.of(created));
+
+        List<BulkUserResultDto> results = service.createAll(dtos);
+
+        assertThat(results).extracting(BulkUserResultDto::getStatus).containsExactly(201, 409, 409);
+        assertThat(results.get(0).getUser()).isEqualTo(created);
+        assertThat(results.get(1).getError()).isEqualTo(new DuplicatedEmailException(existing.getEmail()).getMessage());
+        verify(jdbcTemplate).batchUpdate(anyString(), eq(List.of(dtos.get(0))), anyInt(), any());
+    }
+
+    @Test
+    void createAll_shouldRetryRowByRowWhenEmailIsTakenConcurrently() {
+        User created = User.builder().id(2L).name("new name").email("new@test.test").build();
+        CreateUserDto fresh = new CreateUserDto("new name", "new@test.test");
+        CreateUserDto raced = new CreateUserDto("raced name", "raced@test.test");
+
+        when(repo.findAllByEmailIn(any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(created));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any())).thenAnswer(invocation -> {
+            List<?> batch = invocation.getArgument(1);
+            if (batch.contains(raced)) {
+                throw new DuplicateKeyException("users_email_key");
+            }
+            return new int[][]{{1}};
+        });
+
+        List<BulkUserResultDto> results = service.createAll(List.of(fresh, raced));
+
+        assertThat(results).extracting(BulkUserResultDto::getStatus).containsExactly(201, 409);
+        assertThat(results.get(0).getUser()).isEqualTo(created);
+        assertThat(results.get(1).getError()).isEqualTo(new DuplicatedEmailException(raced.getEmail()).getMessage());
+        verify(repo).findAllByEmailIn(Set.of(fresh.getEmail()));
+        verify(transactionManager, times(2)).rollback(any());
     }
 
     @Test
@@ -115,5 +201,37 @@ class UserServiceTest {
         when(repo.findById(userId)).thenReturn(Optional.of(user));
 
         assertThat(service.delete(userId)).isEqualTo(user);
+        assertThat(user.isDeleted()).isTrue();
+        verify(repo).save(user);
+        verify(purgeJob).schedule(userId);
+    }
+
+    @Test
+    void getById_shouldThrowNotFoundExceptionIfUserIsDeleted() {
+        long id = 1;
+        User user = TestUtils.makeUser(id);
+        user.setDeleted(true);
+
+        when(repo.findById(id)).thenReturn(Optional.of(user));
+
+        assertThatThrownBy(() -> service.getById(id)).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void getDeletionProgress_shouldThrowNotFoundExceptionIfDeletionIsUnknown() {
+        when(purgeJob.getProgress(1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.getDeletionProgress(1L)).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void getAllById_shouldSkipDeletedAndMissingUsers() {
+        User first = TestUtils.makeUser(1L);
+        User deleted = TestUtils.makeUser(2L);
+        deleted.setDeleted(true);
+        User third = TestUtils.makeUser(3L);
+        when(repo.findAllById(List.of(3L, 2L, 4L, 1L))).thenReturn(List.of(first, deleted, third));
+
+        assertThat(service.getAllById(List.of(3L, 2L, 4L, 1L))).containsExactly(third, first);
     }
 }
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.utils;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.*;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class StatementBudget {
+    public static <T> T assertWithin(EntityManagerFactory entityManagerFactory, long budget, Callable<T> action)
+            throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        assertThat(statistics.isStatisticsEnabled())
+                .as("hibernate.generate_statistics must be enabled")
+                .isTrue();
+
+        statistics.clear();
+        T result = action.call();
+
+        assertThat(statistics.getPrepareStatementCount())
+                .as("SQL statements executed")
+                .isLessThanOrEqualTo(budget);
+        return result;
+    }
+}